@@ -0,0 +1,55 @@
+package com.orderbook.benchmark;
+
+import com.orderbook.QuoteGenerator;
+import com.orderbook.domain.LadderType;
+import com.orderbook.domain.MarketData;
+import com.orderbook.domain.Quote;
+import com.orderbook.domain.Side;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+final class BenchmarkBooks {
+    static final long SEED = 42;
+
+    private BenchmarkBooks() {
+    }
+
+    static MarketData book(LadderType ladderType, int levelsPerSide, List<Quote> restingLevels) {
+        MarketData marketData = new MarketData(ladderType);
+        QuoteGenerator generator = new QuoteGenerator(SEED);
+        Set<String> prices = new HashSet<>();
+        int bids = 0;
+        int asks = 0;
+        while (bids < levelsPerSide || asks < levelsPerSide) {
+            Quote quote = Quote.fromString(generator.nextQuote());
+            if (quote.getScaledQuantity() == 0 || !prices.add(quote.getSide() + quote.getPrice().toString())) continue;
+            if (quote.getSide() == Side.BUY ? bids++ >= levelsPerSide : asks++ >= levelsPerSide) continue;
+            marketData.insertQuote(quote);
+            restingLevels.add(quote);
+        }
+        return marketData;
+    }
+
+    static List<Quote> freshLevels(List<Quote> restingLevels, int count) {
+        Set<String> prices = new HashSet<>();
+        for (Quote quote : restingLevels) {
+            prices.add(quote.getSide() + quote.getPrice().toString());
+        }
+        QuoteGenerator generator = new QuoteGenerator(SEED + 1);
+        List<Quote> fresh = new ArrayList<>();
+        while (fresh.size() < count) {
+            Quote quote = Quote.fromString(generator.nextQuote());
+            if (quote.getScaledQuantity() == 0 || !prices.add(quote.getSide() + quote.getPrice().toString())) continue;
+            fresh.add(quote);
+        }
+        return fresh;
+    }
+
+    static Quote withQuantity(Quote quote, String quantity) {
+        return Quote.fromString("t=0|i=" + quote.getInstrument() + "|p=" + quote.getPrice() + "|q=" + quantity
+                + "|s=" + (quote.getSide() == Side.BUY ? "b" : "s"));
+    }
+}
@@ -0,0 +1,83 @@
+package com.orderbook.benchmark;
+
+import com.orderbook.domain.LadderType;
+import com.orderbook.domain.MarketData;
+import com.orderbook.domain.Quote;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarketDataInsertBenchmark {
+    private static final int QUOTE_COUNT = 256;
+
+    @Param({"SKIP_LIST", "ARRAY", "OFF_HEAP"})
+    public LadderType ladderType;
+
+    @Param({"10", "1000"})
+    public int bookSize;
+
+    private MarketData marketData;
+    private Quote[] freshLevels;
+    private Quote[] freshLevelDeletes;
+    private Quote[] levelUpdates;
+    private Quote[] levelDeletes;
+    private Quote[] levelRestores;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<Quote> restingLevels = new ArrayList<>();
+        marketData = BenchmarkBooks.book(ladderType, bookSize, restingLevels);
+        List<Quote> fresh = BenchmarkBooks.freshLevels(restingLevels, QUOTE_COUNT);
+        freshLevels = new Quote[QUOTE_COUNT];
+        freshLevelDeletes = new Quote[QUOTE_COUNT];
+        levelUpdates = new Quote[QUOTE_COUNT];
+        levelDeletes = new Quote[QUOTE_COUNT];
+        levelRestores = new Quote[QUOTE_COUNT];
+        for (int i = 0; i < QUOTE_COUNT; i++) {
+            Quote resting = restingLevels.get(i % restingLevels.size());
+            freshLevels[i] = fresh.get(i);
+            freshLevelDeletes[i] = BenchmarkBooks.withQuantity(fresh.get(i), "0");
+            levelUpdates[i] = BenchmarkBooks.withQuantity(resting, "0.01");
+            levelDeletes[i] = BenchmarkBooks.withQuantity(resting, "0");
+            levelRestores[i] = resting;
+        }
+    }
+
+    @Benchmark
+    public void insertAndDeleteNewLevel() {
+        int i = next++ & (QUOTE_COUNT - 1);
+        marketData.insertQuote(freshLevels[i]);
+        marketData.insertQuote(freshLevelDeletes[i]);
+    }
+
+    @Benchmark
+    public void updateLevel() {
+        marketData.insertQuote(levelUpdates[next++ & (QUOTE_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public void deleteAndRestoreLevel() {
+        int i = next++ & (QUOTE_COUNT - 1);
+        marketData.insertQuote(levelDeletes[i]);
+        marketData.insertQuote(levelRestores[i]);
+    }
+}
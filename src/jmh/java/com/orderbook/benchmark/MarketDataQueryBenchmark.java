@@ -0,0 +1,70 @@
+package com.orderbook.benchmark;
+
+import com.orderbook.domain.LadderType;
+import com.orderbook.domain.MarketData;
+import com.orderbook.domain.Quote;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarketDataQueryBenchmark {
+
+    @Param({"SKIP_LIST", "ARRAY", "OFF_HEAP"})
+    public LadderType ladderType;
+
+    @Param({"10", "1000"})
+    public int bookSize;
+
+    @Param({"1", "5", "20", "50"})
+    public int depth;
+
+    private MarketData marketData;
+
+    @Setup
+    public void setUp() {
+        marketData = BenchmarkBooks.book(ladderType, bookSize, new ArrayList<>());
+    }
+
+    @Benchmark
+    public Quote topBid() {
+        return marketData.getTopBid();
+    }
+
+    @Benchmark
+    public Quote topAsk() {
+        return marketData.getTopAsk();
+    }
+
+    @Benchmark
+    public BigDecimal averagePrice() {
+        return marketData.averagePriceOverNLevels(depth);
+    }
+
+    @Benchmark
+    public BigDecimal totalQuantity() {
+        return marketData.totalQuantityOverNLevels(depth);
+    }
+
+    @Benchmark
+    public BigDecimal volumeWeightedPrice() {
+        return marketData.volumeWeightedPriceOverNLevels(depth);
+    }
+}
@@ -0,0 +1,76 @@
+package com.orderbook.benchmark;
+
+import com.orderbook.domain.L3Book;
+import com.orderbook.domain.LadderType;
+import com.orderbook.domain.Side;
+import com.orderbook.domain.TradeListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fill throughput of the matching engine. Each invocation takes out resting orders and replaces them, so the
+ * book stays the same size; run with {@code -prof gc} to confirm the steady state does not allocate. The sweep
+ * works in the empty band of {@code SWEEP_ORDERS} prices below the resting asks, so it crosses one level per fill.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchingBenchmark {
+    private static final long BEST_ASK = 3300;
+    private static final long LOT = 100;
+    private static final int SWEEP_ORDERS = 16;
+    private static final long RESTING_ASK = BEST_ASK + SWEEP_ORDERS;
+
+    @Param({"SKIP_LIST", "ARRAY", "OFF_HEAP"})
+    public LadderType ladderType;
+
+    @Param({"10", "1000"})
+    public int ordersPerSide;
+
+    private L3Book book;
+    private TradeListener listener;
+    private long nextOrderId;
+    private int next;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        book = new L3Book("BTCUSD", ladderType, 4 * ordersPerSide);
+        listener = (instrument, taker, maker, side, price, quantity, timestamp) -> blackhole.consume(quantity);
+        for (int i = 0; i < ordersPerSide; i++) {
+            book.addOrder(nextOrderId++, Side.SELL, RESTING_ASK + i % SWEEP_ORDERS, LOT, i);
+            book.addOrder(nextOrderId++, Side.BUY, BEST_ASK - 1 - i % SWEEP_ORDERS, LOT, i);
+        }
+    }
+
+    @Benchmark
+    public long fillOneOrder() {
+        long price = RESTING_ASK + next++ % SWEEP_ORDERS;
+        book.addOrder(nextOrderId++, Side.SELL, price, LOT, next);
+        return book.submitOrder(nextOrderId++, Side.BUY, price, LOT, next, listener);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SWEEP_ORDERS)
+    public long sweepLevels() {
+        for (int i = 0; i < SWEEP_ORDERS; i++) {
+            book.addOrder(nextOrderId++, Side.SELL, BEST_ASK + i, LOT, next);
+        }
+        return book.submitOrder(nextOrderId++, Side.BUY, RESTING_ASK - 1, SWEEP_ORDERS * LOT, next++, listener);
+    }
+}
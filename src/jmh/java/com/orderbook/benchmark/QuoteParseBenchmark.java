@@ -0,0 +1,55 @@
+package com.orderbook.benchmark;
+
+import com.orderbook.QuoteGenerator;
+import com.orderbook.domain.Quote;
+import com.orderbook.domain.QuoteParser;
+import com.orderbook.domain.SymbolTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuoteParseBenchmark {
+    private static final int QUOTE_COUNT = 1024;
+
+    private final String[] lines = new String[QUOTE_COUNT];
+    private final byte[][] lineBytes = new byte[QUOTE_COUNT][];
+    private final QuoteParser parser = new QuoteParser(new SymbolTable());
+    private final Quote quote = new Quote();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        QuoteGenerator generator = new QuoteGenerator(42);
+        for (int i = 0; i < QUOTE_COUNT; i++) {
+            lines[i] = generator.nextQuote();
+            lineBytes[i] = lines[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public Quote fromString() {
+        return Quote.fromString(lines[next++ & (QUOTE_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public Quote parseBytes() {
+        byte[] line = lineBytes[next++ & (QUOTE_COUNT - 1)];
+        return parser.parse(line, 0, line.length, quote);
+    }
+}
@@ -0,0 +1,89 @@
+package com.orderbook;
+
+public class LoadProfile {
+    private static final String[] DEFAULT_INSTRUMENTS = {"BTCUSD", "ETHUSD", "SOLUSD"};
+    private static final double DEFAULT_MIN_PRICE = 0.01;
+    private static final double DEFAULT_MAX_PRICE = 1000.00;
+
+    private final long seed;
+    private final String[] instruments;
+    private final long quotesPerSecond;
+    private final double midPrice;
+    private final double minPrice;
+    private final double maxPrice;
+    private final int walkTicks;
+    private final int spreadTicks;
+    private final double maxQuantity;
+    private final double cancelRatio;
+
+    public LoadProfile(long seed, String[] instruments, long quotesPerSecond, double midPrice,
+                       int walkTicks, int spreadTicks, double maxQuantity, double cancelRatio) {
+        this(seed, instruments, quotesPerSecond, midPrice, DEFAULT_MIN_PRICE, DEFAULT_MAX_PRICE, walkTicks, spreadTicks,
+                maxQuantity, cancelRatio);
+    }
+
+    /** Quotes are kept within {@code minPrice..maxPrice}, so a long random walk cannot leave the book's range. */
+    public LoadProfile(long seed, String[] instruments, long quotesPerSecond, double midPrice, double minPrice,
+                       double maxPrice, int walkTicks, int spreadTicks, double maxQuantity, double cancelRatio) {
+        if (instruments.length == 0) throw new IllegalArgumentException("At least one instrument is required");
+        if (quotesPerSecond <= 0) throw new IllegalArgumentException("Rate must be positive");
+        if (cancelRatio < 0 || cancelRatio > 1) throw new IllegalArgumentException("Cancel ratio must be within 0-1");
+        if (minPrice <= 0 || midPrice <= minPrice || midPrice >= maxPrice) {
+            throw new IllegalArgumentException("Mid price must be within a positive price range");
+        }
+        this.seed = seed;
+        this.instruments = instruments.clone();
+        this.quotesPerSecond = quotesPerSecond;
+        this.midPrice = midPrice;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.walkTicks = walkTicks;
+        this.spreadTicks = spreadTicks;
+        this.maxQuantity = maxQuantity;
+        this.cancelRatio = cancelRatio;
+    }
+
+    public static LoadProfile defaults(long seed, long quotesPerSecond) {
+        return new LoadProfile(seed, DEFAULT_INSTRUMENTS, quotesPerSecond, 500.00, 2, 50, 10_000, 0.2);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String[] getInstruments() {
+        return instruments.clone();
+    }
+
+    public long getQuotesPerSecond() {
+        return quotesPerSecond;
+    }
+
+    public double getMidPrice() {
+        return midPrice;
+    }
+
+    public double getMinPrice() {
+        return minPrice;
+    }
+
+    public double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public int getWalkTicks() {
+        return walkTicks;
+    }
+
+    public int getSpreadTicks() {
+        return spreadTicks;
+    }
+
+    public double getMaxQuantity() {
+        return maxQuantity;
+    }
+
+    public double getCancelRatio() {
+        return cancelRatio;
+    }
+}
@@ -1,17 +1,80 @@
 package com.orderbook;
 
+import com.orderbook.domain.CaptureWriter;
 import com.orderbook.domain.OrderBook;
+import com.orderbook.domain.ReplayComparison;
+import com.orderbook.domain.StatsWindow;
+import com.orderbook.pipeline.IngestionPipeline;
+import com.orderbook.pipeline.WaitStrategy;
+import com.orderbook.server.MarketDataServer;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 public class Main {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("--convert")) {
+            System.out.println(CaptureWriter.convert(Path.of(args[1]), Path.of(args[2])));
+            return;
+        } else if ((args.length == 2 || args.length == 3) && args[0].equals("--replay-check")) {
+            int parallelism = args.length == 3 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            ReplayComparison comparison = ReplayComparison.run(Path.of(args[1]), parallelism);
+            System.out.println(comparison);
+            if (!comparison.isIdentical()) System.exit(1);
+            return;
+        } else if (args.length == 3 && args[0].equals("--serve")) {
+            serve(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+            return;
+        }
+        try (OrderBook orderBook = new OrderBook()) {
+            orderBook.enableMetrics();
+            if (args.length == 2 && args[0].equals("--replay")) {
+                System.out.println(orderBook.replay(Path.of(args[1])));
+            } else if (args.length == 2 && args[0].equals("--replay-capture")) {
+                System.out.println(orderBook.replayCapture(Path.of(args[1])));
+            } else if (args.length == 4 && args[0].equals("--load")) {
+                LoadProfile profile = LoadProfile.defaults(Long.parseLong(args[1]), Long.parseLong(args[3]));
+                System.out.println(orderBook.generateLoad(new QuoteGenerator(profile), Long.parseLong(args[2])));
+            } else if (args.length == 3 && args[0].equals("--pipeline")) {
+                WaitStrategy waitStrategy = WaitStrategy.valueOf(args[2].toUpperCase());
+                try (InputStream inputStream = Files.newInputStream(Path.of(args[1]))) {
+                    System.out.println(new IngestionPipeline(orderBook, waitStrategy).run(inputStream));
+                }
+            } else {
+                ExecutorService executor = Executors.newSingleThreadExecutor();
+                executor.submit(orderBook);
+                executor.shutdown();
+            }
+            runMenu(orderBook);
+        }
+    }
+
+    /** The server outlives main, so the book and server are closed from a shutdown hook. */
+    private static void serve(int feedPort, int queryPort) throws IOException {
         OrderBook orderBook = new OrderBook();
-        ExecutorService executor = Executors.newFixedThreadPool(1);
-        executor.submit(orderBook);
+        orderBook.enableMetrics();
+        MarketDataServer server = new MarketDataServer(orderBook,
+                new InetSocketAddress(feedPort), new InetSocketAddress(queryPort));
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try (orderBook) {
+                server.close();
+            } catch (IOException ex) {
+                System.out.println("Server close failed: " + ex.getMessage());
+            }
+        }, "shutdown"));
+        System.out.println("Accepting quotes on port " + server.getFeedPort()
+                + " and queries on port " + server.getQueryPort());
+    }
+
+    private static void runMenu(OrderBook orderBook) {
         Scanner scanner = new Scanner(System.in);
         while (true) {
             try {
@@ -22,16 +85,34 @@ public class Main {
                                 3. Average price
                                 4. Total Quantity
                                 5. Volume Weighted Price
+                                6. Metrics
+                                7. Depth report for all instruments
+                                8. Windowed stats (1s/1m/5m)
                                 
-                                Enter 1-5:"""
+                                Enter 1-8:"""
 
                 );
+                if (!scanner.hasNextLine()) return;
                 int action = Integer.parseInt(scanner.nextLine());
+                if (action == 6) {
+                    System.out.println(orderBook.metrics());
+                    continue;
+                }
+                if (action == 7) {
+                    System.out.println("Enter number of levels: ");
+                    System.out.println(orderBook.depthReport(Integer.parseInt(scanner.nextLine())));
+                    continue;
+                }
                 System.out.println("Enter instrument:");
                 String instrument = scanner.nextLine();
                 switch (action) {
                     case 1 -> System.out.println(orderBook.topLevel(instrument));
                     case 2-> System.out.println(orderBook.allAsksAndBids(instrument));
+                    case 8 -> {
+                        for (StatsWindow window : StatsWindow.values()) {
+                            System.out.println(orderBook.windowStats(instrument, window));
+                        }
+                    }
                     case 3,4,5 -> {
                         System.out.println("Enter number of levels: ");
                         int levels = Integer.parseInt(scanner.nextLine());
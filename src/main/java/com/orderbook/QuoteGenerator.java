@@ -1,26 +1,152 @@
 package com.orderbook;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Random;
+import java.util.SplittableRandom;
 
 public class QuoteGenerator {
     private static final String[] instruments = new String[] {"BTCUSD", "ETHUSD", "SOLUSD"};
+    private static final long LOAD_START_MILLIS = 1_640_995_200_000L;
+    private static final int RECENT_PRICES = 64;
+    private static final int MAX_NUMBER_LENGTH = 21;
+    private static final long DEFAULT_QUOTES_PER_SECOND = 1_000_000;
 
-   public static String generateRandomQuote() {
+    private final Random random;
+    private final LoadProfile profile;
+    private final SplittableRandom loadRandom;
+    private final byte[][] instrumentBytes;
+    private final long[] midPrices;
+    private final long[][] recentPrices;
+    private final int[] recentCounts;
+    private final long maxQuantity;
+    private final long minPrice;
+    private final long maxPrice;
+    private long sequence;
+
+    public QuoteGenerator(long seed) {
+        this(LoadProfile.defaults(seed, DEFAULT_QUOTES_PER_SECOND));
+    }
+
+    public QuoteGenerator(LoadProfile profile) {
+        String[] names = profile.getInstruments();
+        this.random = new Random(profile.getSeed());
+        this.profile = profile;
+        this.loadRandom = new SplittableRandom(profile.getSeed());
+        this.instrumentBytes = new byte[names.length][];
+        this.midPrices = new long[names.length];
+        this.recentPrices = new long[names.length * 2][RECENT_PRICES];
+        this.recentCounts = new int[names.length * 2];
+        this.maxQuantity = Math.max(1, Math.round(profile.getMaxQuantity() * 100));
+        this.minPrice = Math.round(profile.getMinPrice() * 100);
+        this.maxPrice = Math.round(profile.getMaxPrice() * 100);
+        for (int i = 0; i < names.length; i++) {
+            instrumentBytes[i] = names[i].getBytes(StandardCharsets.UTF_8);
+            midPrices[i] = Math.round(profile.getMidPrice() * 100);
+        }
+    }
+
+    public LoadProfile getProfile() {
+        return profile;
+    }
+
+    public int getMaxQuoteLength() {
+        int longestInstrument = 0;
+        for (byte[] instrument : instrumentBytes) {
+            longestInstrument = Math.max(longestInstrument, instrument.length);
+        }
+        return "t=|i=|p=|q=|s=b\n".length() + longestInstrument + 3 * MAX_NUMBER_LENGTH;
+    }
+
+    public int writeNextQuote(byte[] buffer, int offset) {
+        int instrument = loadRandom.nextInt(instrumentBytes.length);
+        boolean buy = loadRandom.nextBoolean();
+        int side = instrument * 2 + (buy ? 0 : 1);
+        long price;
+        long quantity;
+        if (recentCounts[side] > 0 && loadRandom.nextDouble() < profile.getCancelRatio()) {
+            int recent = Math.min(recentCounts[side], RECENT_PRICES);
+            price = recentPrices[side][loadRandom.nextInt(recent)];
+            quantity = 0;
+        } else {
+            price = nextPrice(instrument, buy);
+            quantity = 1 + loadRandom.nextLong(maxQuantity);
+            recentPrices[side][recentCounts[side]++ & (RECENT_PRICES - 1)] = price;
+        }
+        long timestamp = LOAD_START_MILLIS + sequence++ * 1000 / profile.getQuotesPerSecond();
+
+        int position = offset;
+        position = writeAscii(buffer, position, "t=");
+        position = writeLong(buffer, position, timestamp);
+        position = writeAscii(buffer, position, "|i=");
+        System.arraycopy(instrumentBytes[instrument], 0, buffer, position, instrumentBytes[instrument].length);
+        position += instrumentBytes[instrument].length;
+        position = writeAscii(buffer, position, "|p=");
+        position = writeScaled(buffer, position, price);
+        position = writeAscii(buffer, position, "|q=");
+        position = writeScaled(buffer, position, quantity);
+        position = writeAscii(buffer, position, buy ? "|s=b\n" : "|s=s\n");
+        return position - offset;
+    }
+
+    public static String generateRandomQuote() {
+        return generateRandomQuote(new Random());
+    }
+
+    public String nextQuote() {
+        return generateRandomQuote(random);
+    }
+
+    private static String generateRandomQuote(Random random) {
         String time = String.valueOf(System.currentTimeMillis());
-        String instrument = getRandomInstrument();
-        String price = getRandomPrice();
-        String quantity = getRandomQuantity();
-        String side = getRandomSide();
+        String instrument = getRandomInstrument(random);
+        String price = getRandomPrice(random);
+        String quantity = getRandomQuantity(random);
+        String side = getRandomSide(random);
         return String.format("t=%s|i=%s|p=%s|q=%s|s=%s", time, instrument, price, quantity, side);
     }
 
-    private static String getRandomInstrument() {
-        return instruments[new Random().nextInt(instruments.length)];
+    private long nextPrice(int instrument, boolean buy) {
+        long mid = midPrices[instrument] + Math.round(loadRandom.nextGaussian() * profile.getWalkTicks());
+        mid = Math.min(Math.max(mid, minPrice + 1), maxPrice - 1);
+        midPrices[instrument] = mid;
+        long distance = 1 + (long) (-Math.log(1 - loadRandom.nextDouble()) * profile.getSpreadTicks());
+        return buy ? Math.max(minPrice, mid - distance) : Math.min(maxPrice, mid + distance);
+    }
+
+    private static int writeAscii(byte[] buffer, int position, String ascii) {
+        for (int i = 0; i < ascii.length(); i++) {
+            buffer[position++] = (byte) ascii.charAt(i);
+        }
+        return position;
+    }
+
+    private static int writeScaled(byte[] buffer, int position, long scaled) {
+        position = writeLong(buffer, position, scaled / 100);
+        buffer[position++] = '.';
+        buffer[position++] = (byte) ('0' + scaled / 10 % 10);
+        buffer[position++] = (byte) ('0' + scaled % 10);
+        return position;
+    }
+
+    private static int writeLong(byte[] buffer, int position, long value) {
+        int digits = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return position + digits;
+    }
+
+    private static String getRandomInstrument(Random random) {
+        return instruments[random.nextInt(instruments.length)];
     }
 
-    private static String getRandomPrice() {
-        double price = new Random().nextDouble(0.01, 999.99);
-        boolean flag = new Random().nextBoolean();
+    private static String getRandomPrice(Random random) {
+        double price = random.nextDouble(0.01, 999.99);
+        boolean flag = random.nextBoolean();
         if (flag) {
             return String.format("%.2f", price);
         } else {
@@ -28,9 +154,9 @@ public class QuoteGenerator {
         }
     }
 
-    private static String getRandomQuantity() {
-        double price = new Random().nextDouble(0, 10737418.23);
-        boolean flag = new Random().nextBoolean();
+    private static String getRandomQuantity(Random random) {
+        double price = random.nextDouble(0, 10737418.23);
+        boolean flag = random.nextBoolean();
         if (flag) {
             return String.format("%.2f", price);
         } else {
@@ -38,8 +164,8 @@ public class QuoteGenerator {
         }
     }
 
-    private static String getRandomSide() {
-        if (new Random().nextBoolean()) {
+    private static String getRandomSide(Random random) {
+        if (random.nextBoolean()) {
             return "b";
         }
         return "s";
@@ -0,0 +1,120 @@
+package com.orderbook.domain;
+
+class ArrayLadder implements PriceLadder {
+    private final long minPrice;
+    private final long[] quantities;
+    private final long[] occupied;
+    private final long[] occupiedWords;
+    private final boolean higherIsBetter;
+    private int best = -1;
+    private int size;
+
+    ArrayLadder(long minPrice, long maxPrice, boolean higherIsBetter) {
+        if (maxPrice < minPrice) throw new IllegalArgumentException("Ladder range is empty");
+        int ticks = Math.toIntExact(maxPrice - minPrice + 1);
+        this.minPrice = minPrice;
+        this.quantities = new long[ticks];
+        this.occupied = new long[(ticks + 63) >>> 6];
+        this.occupiedWords = new long[(occupied.length + 63) >>> 6];
+        this.higherIsBetter = higherIsBetter;
+    }
+
+    @Override
+    public boolean add(long price, long quantity) {
+        int index = index(price);
+        if (isOccupied(index)) {
+            quantities[index] += quantity;
+            return false;
+        }
+        quantities[index] = quantity;
+        occupied[index >>> 6] |= 1L << index;
+        occupiedWords[index >>> 12] |= 1L << (index >>> 6);
+        if (best < 0 || isBetter(index, best)) best = index;
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(long price) {
+        int index = index(price);
+        if (!isOccupied(index)) return false;
+        quantities[index] = 0;
+        occupied[index >>> 6] &= ~(1L << index);
+        if (occupied[index >>> 6] == 0) occupiedWords[index >>> 12] &= ~(1L << (index >>> 6));
+        if (index == best) best = next(index);
+        size--;
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void forEach(LevelVisitor visitor) {
+        for (int index = best; index >= 0; index = next(index)) {
+            if (!visitor.visit(minPrice + index, quantities[index])) return;
+        }
+    }
+
+    private int index(long price) {
+        long index = price - minPrice;
+        if (index < 0 || index >= quantities.length) {
+            throw new IllegalArgumentException("Price is outside the ladder range");
+        }
+        return (int) index;
+    }
+
+    private boolean isOccupied(int index) {
+        return (occupied[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private boolean isBetter(int index, int other) {
+        return higherIsBetter ? index > other : index < other;
+    }
+
+    private int next(int index) {
+        return higherIsBetter ? previousOccupied(index - 1) : nextOccupied(index + 1);
+    }
+
+    private int nextOccupied(int from) {
+        if (from >= quantities.length) return -1;
+        int wordIndex = from >>> 6;
+        long word = occupied[wordIndex] & (-1L << from);
+        if (word != 0) return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+        wordIndex = nextOccupiedWord(wordIndex + 1);
+        return wordIndex < 0 ? -1 : (wordIndex << 6) + Long.numberOfTrailingZeros(occupied[wordIndex]);
+    }
+
+    private int previousOccupied(int from) {
+        if (from < 0) return -1;
+        int wordIndex = from >>> 6;
+        long word = occupied[wordIndex] & (-1L >>> (63 - (from & 63)));
+        if (word != 0) return (wordIndex << 6) + 63 - Long.numberOfLeadingZeros(word);
+        wordIndex = previousOccupiedWord(wordIndex - 1);
+        return wordIndex < 0 ? -1 : (wordIndex << 6) + 63 - Long.numberOfLeadingZeros(occupied[wordIndex]);
+    }
+
+    private int nextOccupiedWord(int from) {
+        if (from >= occupied.length) return -1;
+        int summaryIndex = from >>> 6;
+        long summary = occupiedWords[summaryIndex] & (-1L << from);
+        while (true) {
+            if (summary != 0) return (summaryIndex << 6) + Long.numberOfTrailingZeros(summary);
+            if (++summaryIndex == occupiedWords.length) return -1;
+            summary = occupiedWords[summaryIndex];
+        }
+    }
+
+    private int previousOccupiedWord(int from) {
+        if (from < 0) return -1;
+        int summaryIndex = from >>> 6;
+        long summary = occupiedWords[summaryIndex] & (-1L >>> (63 - (from & 63)));
+        while (true) {
+            if (summary != 0) return (summaryIndex << 6) + 63 - Long.numberOfLeadingZeros(summary);
+            if (--summaryIndex < 0) return -1;
+            summary = occupiedWords[summaryIndex];
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.orderbook.domain;
+
+class BestPrice implements LevelVisitor {
+    static final long NONE = Long.MIN_VALUE;
+
+    private long price;
+
+    long of(PriceLadder ladder) {
+        price = NONE;
+        ladder.forEach(this);
+        return price;
+    }
+
+    @Override
+    public boolean visit(long price, long quantity) {
+        this.price = price;
+        return false;
+    }
+}
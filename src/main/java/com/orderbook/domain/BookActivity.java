@@ -0,0 +1,9 @@
+package com.orderbook.domain;
+
+/** What caused a level change, so the rolling windows can tell cancels apart from fills and amendments. */
+enum BookActivity {
+    UPDATE,
+    CANCEL,
+    AMEND,
+    TRADE
+}
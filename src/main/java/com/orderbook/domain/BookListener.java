@@ -0,0 +1,5 @@
+package com.orderbook.domain;
+
+public interface BookListener {
+    void onUpdate(BookSnapshot snapshot);
+}
@@ -0,0 +1,112 @@
+package com.orderbook.domain;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class BookSnapshot {
+    private final String instrument;
+    private final long version;
+    private final long[] bidPrices;
+    private final long[] bidQuantities;
+    private final long[] askPrices;
+    private final long[] askQuantities;
+
+    BookSnapshot(String instrument, long version, long[] bidPrices, long[] bidQuantities,
+                 long[] askPrices, long[] askQuantities) {
+        this.instrument = instrument;
+        this.version = version;
+        this.bidPrices = bidPrices;
+        this.bidQuantities = bidQuantities;
+        this.askPrices = askPrices;
+        this.askQuantities = askQuantities;
+    }
+
+    public String getInstrument() {
+        return instrument;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getBidDepth() {
+        return bidPrices.length;
+    }
+
+    public int getAskDepth() {
+        return askPrices.length;
+    }
+
+    public List<Quote> getBids() {
+        return levels(bidPrices, bidQuantities, Side.BUY);
+    }
+
+    public List<Quote> getAsks() {
+        return levels(askPrices, askQuantities, Side.SELL);
+    }
+
+    public Quote getTopBid() {
+        return bidPrices.length == 0 ? null : level(bidPrices[0], bidQuantities[0], Side.BUY);
+    }
+
+    public Quote getTopAsk() {
+        return askPrices.length == 0 ? null : level(askPrices[0], askQuantities[0], Side.SELL);
+    }
+
+    public BigDecimal averagePriceOverNLevels(int n) {
+        int bids = Math.min(n, bidPrices.length);
+        int asks = Math.min(n, askPrices.length);
+        return MarketData.averagePrice(sum(bidPrices, bids) + sum(askPrices, asks), bids + asks);
+    }
+
+    public BigDecimal totalQuantityOverNLevels(int n) {
+        int bids = Math.min(n, bidPrices.length);
+        int asks = Math.min(n, askPrices.length);
+        return MarketData.totalQuantity(sum(bidQuantities, bids) + sum(askQuantities, asks), bids + asks);
+    }
+
+    public BigDecimal volumeWeightedPriceOverNLevels(int n) {
+        int bids = Math.min(n, bidPrices.length);
+        int asks = Math.min(n, askPrices.length);
+        NotionalSum totalNotional = new NotionalSum();
+        addNotional(totalNotional, bidPrices, bidQuantities, bids);
+        addNotional(totalNotional, askPrices, askQuantities, asks);
+        long totalQuantity = sum(bidQuantities, bids) + sum(askQuantities, asks);
+        return MarketData.volumeWeightedPrice(totalNotional, totalQuantity);
+    }
+
+    boolean hasSameLevels(BookSnapshot other) {
+        return Arrays.equals(bidPrices, other.bidPrices) && Arrays.equals(bidQuantities, other.bidQuantities)
+                && Arrays.equals(askPrices, other.askPrices) && Arrays.equals(askQuantities, other.askQuantities);
+    }
+
+    private List<Quote> levels(long[] prices, long[] quantities, Side side) {
+        List<Quote> levels = new ArrayList<>(prices.length);
+        for (int i = 0; i < prices.length; i++) {
+            levels.add(level(prices[i], quantities[i], side));
+        }
+        return levels;
+    }
+
+    private Quote level(long price, long quantity, Side side) {
+        Quote level = new Quote();
+        level.set(instrument, price, quantity, side);
+        return level;
+    }
+
+    private static long sum(long[] values, int n) {
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    private static void addNotional(NotionalSum notional, long[] prices, long[] quantities, int n) {
+        for (int i = 0; i < n; i++) {
+            notional.add(prices[i], quantities[i]);
+        }
+    }
+}
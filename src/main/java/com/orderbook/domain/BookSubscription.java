@@ -0,0 +1,57 @@
+package com.orderbook.domain;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class BookSubscription implements AutoCloseable {
+    private final MarketData marketData;
+    private final int depth;
+    private final BookListener listener;
+    private final Executor executor;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private BookSnapshot lastDelivered;
+    private volatile boolean closed;
+
+    BookSubscription(MarketData marketData, int depth, BookListener listener, Executor executor) {
+        if (depth < 1) throw new IllegalArgumentException("Depth must be positive");
+        this.marketData = marketData;
+        this.depth = depth;
+        this.listener = listener;
+        this.executor = executor;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        marketData.unsubscribe(this);
+    }
+
+    void onChange() {
+        if (!dirty.get()) dirty.set(true);
+        if (!scheduled.get() && scheduled.compareAndSet(false, true)) {
+            executor.execute(this::deliver);
+        }
+    }
+
+    private void deliver() {
+        do {
+            while (!closed && dirty.getAndSet(false)) {
+                BookSnapshot snapshot = marketData.snapshot(depth);
+                if (lastDelivered == null ? snapshot.getVersion() > 0 : !snapshot.hasSameLevels(lastDelivered)) {
+                    lastDelivered = snapshot;
+                    try {
+                        listener.onUpdate(snapshot);
+                    } catch (RuntimeException ex) {
+                        System.out.println("Book listener failed: " + ex.getMessage());
+                    }
+                }
+            }
+            scheduled.set(false);
+        } while (!closed && dirty.get() && scheduled.compareAndSet(false, true));
+    }
+}
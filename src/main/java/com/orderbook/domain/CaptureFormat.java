@@ -0,0 +1,54 @@
+package com.orderbook.domain;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary capture layout. A file starts with {@link #MAGIC} and {@link #VERSION} and is followed by blocks of up to
+ * {@link #BLOCK_QUOTES} quotes. Each block is a quote count and body length (ints), then the body:
+ * <ul>
+ *     <li>instruments first seen in the block: count (int), then length-prefixed UTF-8 names, which extend
+ *     the file's dictionary in order</li>
+ *     <li>base timestamp (long) and one zigzag varint delta per quote from the previous timestamp</li>
+ *     <li>dictionary index per quote as a varint</li>
+ *     <li>side bitmap, one bit per quote, set for sells</li>
+ *     <li>prices, then quantities, as scaled longs</li>
+ * </ul>
+ */
+final class CaptureFormat {
+    static final int MAGIC = 0x4F424341;
+    static final int VERSION = 1;
+    static final int BLOCK_QUOTES = 64 * 1024;
+    static final int FILE_HEADER_BYTES = 2 * Integer.BYTES;
+    static final int BLOCK_HEADER_BYTES = 2 * Integer.BYTES;
+
+    private CaptureFormat() {
+    }
+
+    static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
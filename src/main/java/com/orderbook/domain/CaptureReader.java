@@ -0,0 +1,155 @@
+package com.orderbook.domain;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Replays a binary capture into an {@link OrderBook}. Blocks are decoded column by column on the calling thread;
+ * with more than one worker each block is then applied partitioned by instrument, keeping per-instrument order.
+ */
+public class CaptureReader {
+    private final OrderBook orderBook;
+    private final int parallelism;
+    private final SymbolTable symbols;
+    private final long[] timestamps = new long[CaptureFormat.BLOCK_QUOTES];
+    private final int[] symbolIds = new int[CaptureFormat.BLOCK_QUOTES];
+    private final Side[] sides = new Side[CaptureFormat.BLOCK_QUOTES];
+    private final long[] prices = new long[CaptureFormat.BLOCK_QUOTES];
+    private final long[] quantities = new long[CaptureFormat.BLOCK_QUOTES];
+    private int[] dictionary = new int[64];
+    private int dictionarySize;
+    private int blockSize;
+
+    public CaptureReader(OrderBook orderBook) {
+        this(orderBook, 1);
+    }
+
+    public CaptureReader(OrderBook orderBook, int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive");
+        this.orderBook = orderBook;
+        this.symbols = orderBook.getSymbols();
+        this.parallelism = parallelism;
+    }
+
+    public ReplayResult replay(Path file) throws IOException {
+        long startNanos = System.nanoTime();
+        dictionarySize = 0;
+        ExecutorService executor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism) : null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(CaptureFormat.FILE_HEADER_BYTES);
+            readFully(channel, header, 0, file);
+            if (header.getInt() != CaptureFormat.MAGIC) throw new IOException("Not a capture file: " + file);
+            int version = header.getInt();
+            if (version != CaptureFormat.VERSION) {
+                throw new IOException("Unsupported capture version " + version + ": " + file);
+            }
+            List<Callable<Long>> applyTasks = applyTasks();
+            Quote quote = new Quote();
+            ByteBuffer blockHeader = ByteBuffer.allocate(CaptureFormat.BLOCK_HEADER_BYTES);
+            ByteBuffer body = ByteBuffer.allocateDirect(1024 * 1024);
+            long quotes = 0;
+            long rejected = 0;
+            long position = CaptureFormat.FILE_HEADER_BYTES;
+            while (position < size) {
+                blockHeader.clear();
+                readFully(channel, blockHeader, position, file);
+                int count = blockHeader.getInt();
+                int bodyBytes = blockHeader.getInt();
+                if (count < 0 || count > CaptureFormat.BLOCK_QUOTES || bodyBytes < 0) {
+                    throw new IOException("Corrupt capture block at " + position + ": " + file);
+                }
+                if (body.capacity() < bodyBytes) body = ByteBuffer.allocateDirect(bodyBytes);
+                body.clear().limit(bodyBytes);
+                readFully(channel, body, position + CaptureFormat.BLOCK_HEADER_BYTES, file);
+                decode(body, count);
+                if (executor == null) {
+                    rejected += apply(count, 0, quote);
+                } else {
+                    blockSize = count;
+                    for (long shardRejected : ReplayLoader.getAll(executor.invokeAll(applyTasks))) {
+                        rejected += shardRejected;
+                    }
+                }
+                quotes += count;
+                position += CaptureFormat.BLOCK_HEADER_BYTES + bodyBytes;
+            }
+            return new ReplayResult(quotes, 0, rejected, System.nanoTime() - startNanos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Replay interrupted", ex);
+        } finally {
+            if (executor != null) executor.shutdownNow();
+        }
+    }
+
+    private List<Callable<Long>> applyTasks() {
+        List<Callable<Long>> tasks = new ArrayList<>(parallelism);
+        for (int shard = 0; shard < parallelism; shard++) {
+            int applyShard = shard;
+            Quote quote = new Quote();
+            tasks.add(() -> apply(blockSize, applyShard, quote));
+        }
+        return tasks;
+    }
+
+    private void decode(ByteBuffer body, int count) {
+        int names = body.getInt();
+        for (int i = 0; i < names; i++) {
+            byte[] name = new byte[body.getShort()];
+            body.get(name);
+            if (dictionarySize == dictionary.length) dictionary = Arrays.copyOf(dictionary, dictionarySize * 2);
+            dictionary[dictionarySize++] = symbols.id(new String(name, StandardCharsets.UTF_8));
+        }
+        long previous = body.getLong();
+        for (int i = 0; i < count; i++) {
+            previous += CaptureFormat.unzigzag(CaptureFormat.getVarLong(body));
+            timestamps[i] = previous;
+        }
+        for (int i = 0; i < count; i++) {
+            symbolIds[i] = dictionary[(int) CaptureFormat.getVarLong(body)];
+        }
+        for (int i = 0; i < count; i += 8) {
+            int bits = body.get();
+            for (int bit = 0; bit < 8 && i + bit < count; bit++) {
+                sides[i + bit] = (bits & (1 << bit)) != 0 ? Side.SELL : Side.BUY;
+            }
+        }
+        body.asLongBuffer().get(prices, 0, count);
+        body.position(body.position() + count * Long.BYTES);
+        body.asLongBuffer().get(quantities, 0, count);
+    }
+
+    private long apply(int count, int shard, Quote quote) {
+        long rejected = 0;
+        for (int i = 0; i < count; i++) {
+            int symbolId = symbolIds[i];
+            if (parallelism > 1 && symbolId % parallelism != shard) continue;
+            quote.set(symbols.name(symbolId), prices[i], quantities[i], sides[i]);
+            quote.setInstrumentId(symbols, symbolId);
+            quote.setTimestamp(timestamps[i]);
+            if (!orderBook.insertQuote(quote)) rejected++;
+        }
+        return rejected;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position, Path file)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated capture file: " + file);
+            }
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,192 @@
+package com.orderbook.domain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class CaptureWriter implements Closeable {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_VARINT_BYTES = 10;
+
+    private final FileChannel channel;
+    private final SymbolTable symbols;
+    private final long[] timestamps = new long[CaptureFormat.BLOCK_QUOTES];
+    private final int[] entries = new int[CaptureFormat.BLOCK_QUOTES];
+    private final boolean[] sells = new boolean[CaptureFormat.BLOCK_QUOTES];
+    private final long[] prices = new long[CaptureFormat.BLOCK_QUOTES];
+    private final long[] quantities = new long[CaptureFormat.BLOCK_QUOTES];
+    private final List<String> newNames = new ArrayList<>();
+    private int[] dictionary = new int[64];
+    private int dictionarySize;
+    private long lastTimestamp;
+    private ByteBuffer block = ByteBuffer.allocateDirect(blockCapacity(CaptureFormat.BLOCK_QUOTES, Integer.BYTES));
+    private int size;
+    private long quotes;
+
+    public CaptureWriter(Path file) throws IOException {
+        this(file, new SymbolTable());
+    }
+
+    /** Quotes parsed against {@code symbols} are written by id; any other quote is looked up by name. */
+    public CaptureWriter(Path file, SymbolTable symbols) throws IOException {
+        this.symbols = symbols;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        Arrays.fill(dictionary, -1);
+        ByteBuffer header = ByteBuffer.allocate(CaptureFormat.FILE_HEADER_BYTES);
+        header.putInt(CaptureFormat.MAGIC).putInt(CaptureFormat.VERSION).flip();
+        write(header);
+    }
+
+    public void append(Quote quote) throws IOException {
+        int symbolId = quote.instrumentId(symbols);
+        if (symbolId < 0) symbolId = symbols.id(quote.getInstrument());
+        timestamps[size] = quote.getTimestamp();
+        entries[size] = entry(symbolId);
+        sells[size] = quote.getSide() == Side.SELL;
+        prices[size] = quote.getScaledPrice();
+        quantities[size] = quote.getScaledQuantity();
+        quotes++;
+        if (++size == CaptureFormat.BLOCK_QUOTES) flushBlock();
+    }
+
+    public long getQuotes() {
+        return quotes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) return;
+        try {
+            flushBlock();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /** Converts a text capture into the binary format, skipping lines that do not parse. */
+    public static ReplayResult convert(Path textFile, Path captureFile) throws IOException {
+        long startNanos = System.nanoTime();
+        SymbolTable symbols = new SymbolTable();
+        QuoteParser parser = new QuoteParser(symbols);
+        Quote quote = new Quote();
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        long[] counts = new long[2];
+        try (InputStream in = Files.newInputStream(textFile);
+             CaptureWriter writer = new CaptureWriter(captureFile, symbols)) {
+            int length = 0;
+            int read;
+            while ((read = in.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
+                int lineStart = 0;
+                for (int i = 0; i < length; i++) {
+                    if (buffer[i] == '\n') {
+                        writer.appendLine(parser, buffer, lineStart, i, quote, counts);
+                        lineStart = i + 1;
+                    }
+                }
+                length -= lineStart;
+                System.arraycopy(buffer, lineStart, buffer, 0, length);
+                if (length == buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            if (length > 0) writer.appendLine(parser, buffer, 0, length, quote, counts);
+        }
+        return new ReplayResult(counts[0], counts[1], System.nanoTime() - startNanos);
+    }
+
+    private void appendLine(QuoteParser parser, byte[] buffer, int from, int to, Quote quote, long[] counts)
+            throws IOException {
+        if (isBlank(buffer, from, to)) return;
+        counts[0]++;
+        try {
+            parser.parse(buffer, from, to, quote);
+        } catch (IllegalArgumentException ex) {
+            counts[1]++;
+            return;
+        }
+        append(quote);
+    }
+
+    private int entry(int symbolId) {
+        if (symbolId >= dictionary.length) {
+            int oldLength = dictionary.length;
+            dictionary = Arrays.copyOf(dictionary, Math.max(oldLength * 2, symbolId + 1));
+            Arrays.fill(dictionary, oldLength, dictionary.length, -1);
+        }
+        if (dictionary[symbolId] < 0) {
+            dictionary[symbolId] = dictionarySize++;
+            newNames.add(symbols.name(symbolId));
+        }
+        return dictionary[symbolId];
+    }
+
+    private void flushBlock() throws IOException {
+        if (size == 0) return;
+        int namesBytes = Integer.BYTES;
+        for (String name : newNames) {
+            namesBytes += Short.BYTES + name.getBytes(StandardCharsets.UTF_8).length;
+        }
+        int capacity = blockCapacity(size, namesBytes);
+        if (block.capacity() < capacity) block = ByteBuffer.allocateDirect(capacity);
+        block.clear();
+        block.position(CaptureFormat.BLOCK_HEADER_BYTES);
+        block.putInt(newNames.size());
+        for (String name : newNames) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            block.putShort((short) bytes.length).put(bytes);
+        }
+        newNames.clear();
+        block.putLong(lastTimestamp);
+        long previous = lastTimestamp;
+        for (int i = 0; i < size; i++) {
+            CaptureFormat.putVarLong(block, CaptureFormat.zigzag(timestamps[i] - previous));
+            previous = timestamps[i];
+        }
+        lastTimestamp = previous;
+        for (int i = 0; i < size; i++) {
+            CaptureFormat.putVarLong(block, entries[i]);
+        }
+        for (int i = 0; i < size; i += 8) {
+            int bits = 0;
+            for (int bit = 0; bit < 8 && i + bit < size; bit++) {
+                if (sells[i + bit]) bits |= 1 << bit;
+            }
+            block.put((byte) bits);
+        }
+        block.asLongBuffer().put(prices, 0, size);
+        block.position(block.position() + size * Long.BYTES);
+        block.asLongBuffer().put(quantities, 0, size);
+        block.position(block.position() + size * Long.BYTES);
+        block.putInt(0, size).putInt(Integer.BYTES, block.position() - CaptureFormat.BLOCK_HEADER_BYTES);
+        block.flip();
+        write(block);
+        size = 0;
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static int blockCapacity(int quotes, int namesBytes) {
+        return CaptureFormat.BLOCK_HEADER_BYTES + namesBytes + Long.BYTES + quotes * MAX_VARINT_BYTES
+                + quotes * MAX_VARINT_BYTES + (quotes + 7) / 8 + 2 * quotes * Long.BYTES;
+    }
+
+    private static boolean isBlank(byte[] buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] != '\r') return false;
+        }
+        return true;
+    }
+}
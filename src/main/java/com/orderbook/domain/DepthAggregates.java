@@ -0,0 +1,107 @@
+package com.orderbook.domain;
+
+import java.util.Arrays;
+
+class DepthAggregates implements LevelVisitor {
+    private final int[] depths;
+    private final boolean higherIsBetter;
+    private final int[] counts;
+    private final long[] prices;
+    private final long[] quantities;
+    private final NotionalSum[] notionals;
+    private final long[] boundaries;
+
+    private int walked;
+    private long walkedPrice;
+    private long walkedQuantity;
+    private final NotionalSum walkedNotional = new NotionalSum();
+
+    DepthAggregates(int[] depths, boolean higherIsBetter) {
+        this.depths = Arrays.stream(depths).filter(depth -> depth > 0).sorted().distinct().toArray();
+        this.higherIsBetter = higherIsBetter;
+        this.counts = new int[this.depths.length];
+        this.prices = new long[this.depths.length];
+        this.quantities = new long[this.depths.length];
+        this.notionals = new NotionalSum[this.depths.length];
+        for (int k = 0; k < notionals.length; k++) {
+            notionals[k] = new NotionalSum();
+        }
+        this.boundaries = new long[this.depths.length];
+    }
+
+    int depthIndex(int depth) {
+        for (int k = 0; k < depths.length; k++) {
+            if (depths[k] == depth) return k;
+        }
+        return -1;
+    }
+
+    boolean affects(long price) {
+        return depths.length > 0 && inBand(price, depths.length - 1);
+    }
+
+    void onQuantityChange(long price, long delta) {
+        for (int k = 0; k < depths.length; k++) {
+            if (inBand(price, k)) {
+                quantities[k] += delta;
+                notionals[k].add(price, delta);
+            }
+        }
+    }
+
+    void beginRecompute() {
+        walked = 0;
+        walkedPrice = 0;
+        walkedQuantity = 0;
+        walkedNotional.clear();
+    }
+
+    @Override
+    public boolean visit(long price, long quantity) {
+        walkedPrice += price;
+        walkedQuantity += quantity;
+        walkedNotional.add(price, quantity);
+        walked++;
+        for (int k = 0; k < depths.length; k++) {
+            if (depths[k] == walked) {
+                record(k);
+                boundaries[k] = price;
+            }
+        }
+        return depths.length > 0 && walked < depths[depths.length - 1];
+    }
+
+    void endRecompute() {
+        for (int k = 0; k < depths.length; k++) {
+            if (depths[k] > walked) record(k);
+        }
+    }
+
+    int count(int k) {
+        return counts[k];
+    }
+
+    long price(int k) {
+        return prices[k];
+    }
+
+    long quantity(int k) {
+        return quantities[k];
+    }
+
+    NotionalSum notional(int k) {
+        return notionals[k];
+    }
+
+    private void record(int k) {
+        counts[k] = walked;
+        prices[k] = walkedPrice;
+        quantities[k] = walkedQuantity;
+        notionals[k].set(walkedNotional);
+    }
+
+    private boolean inBand(long price, int k) {
+        if (counts[k] < depths[k]) return true;
+        return higherIsBetter ? price >= boundaries[k] : price <= boundaries[k];
+    }
+}
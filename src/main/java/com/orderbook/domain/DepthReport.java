@@ -0,0 +1,90 @@
+package com.orderbook.domain;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+public final class DepthReport {
+    private final int levels;
+    private final String[] instruments;
+    private final int[] counts;
+    private final long[] prices;
+    private final long[] quantities;
+    private final NotionalSum[] notionals;
+
+    DepthReport(int levels, String[] instruments) {
+        this.levels = levels;
+        this.instruments = instruments;
+        this.counts = new int[instruments.length];
+        this.prices = new long[instruments.length];
+        this.quantities = new long[instruments.length];
+        this.notionals = new NotionalSum[instruments.length];
+        for (int i = 0; i < notionals.length; i++) {
+            notionals[i] = new NotionalSum();
+        }
+    }
+
+    public int getLevels() {
+        return levels;
+    }
+
+    public int size() {
+        return instruments.length;
+    }
+
+    public String getInstrument(int index) {
+        return instruments[index];
+    }
+
+    public int indexOf(String instrument) {
+        for (int i = 0; i < instruments.length; i++) {
+            if (instruments[i].equals(instrument)) return i;
+        }
+        return -1;
+    }
+
+    public int getLevelCount(int index) {
+        return counts[index];
+    }
+
+    public long getScaledTotalQuantity(int index) {
+        return quantities[index];
+    }
+
+    public BigDecimal getAveragePrice(int index) {
+        return MarketData.averagePrice(prices[index], counts[index]);
+    }
+
+    public BigDecimal getTotalQuantity(int index) {
+        return MarketData.totalQuantity(quantities[index], counts[index]);
+    }
+
+    public BigDecimal getVolumeWeightedPrice(int index) {
+        return MarketData.volumeWeightedPrice(notionals[index], quantities[index]);
+    }
+
+    public BigDecimal getUniverseVolumeWeightedPrice() {
+        NotionalSum notional = new NotionalSum();
+        for (NotionalSum instrumentNotional : notionals) {
+            notional.add(instrumentNotional);
+        }
+        return MarketData.volumeWeightedPrice(notional, Arrays.stream(quantities).sum());
+    }
+
+    void set(int index, int count, long price, long quantity, NotionalSum notional) {
+        counts[index] = count;
+        prices[index] = price;
+        quantities[index] = quantity;
+        notionals[index].set(notional);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < instruments.length; i++) {
+            sb.append(instruments[i]).append(": avg=").append(getAveragePrice(i))
+                    .append(" qty=").append(getTotalQuantity(i))
+                    .append(" vwap=").append(getVolumeWeightedPrice(i)).append('\n');
+        }
+        return sb.toString();
+    }
+}
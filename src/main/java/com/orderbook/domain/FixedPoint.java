@@ -0,0 +1,63 @@
+package com.orderbook.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public final class FixedPoint {
+    public static final int SCALE = 2;
+    private static final int MAX_DIGITS = 17;
+
+    private FixedPoint() {
+    }
+
+    public static long parse(String str) throws IllegalArgumentException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        return parse(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    public static long parse(ByteBuffer buffer, int from, int to) throws IllegalArgumentException {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        boolean roundUp = false;
+        for (; i < to; i++) {
+            byte c = buffer.get(i);
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c >= '0' && c <= '9') {
+                digits++;
+                if (fractionDigits < SCALE) {
+                    if (digits > MAX_DIGITS) throw new IllegalArgumentException("Number is out of range");
+                    value = value * 10 + (c - '0');
+                    if (fractionDigits >= 0) fractionDigits++;
+                } else if (fractionDigits++ == SCALE) {
+                    roundUp = c >= '5';
+                }
+            } else {
+                throw new IllegalArgumentException("Number is not of the correct format");
+            }
+        }
+        if (digits == 0) throw new IllegalArgumentException("Number is not of the correct format");
+        for (int scale = Math.max(fractionDigits, 0); scale < SCALE; scale++) {
+            value *= 10;
+        }
+        if (roundUp) value++;
+        return negative ? -value : value;
+    }
+
+    public static BigDecimal toBigDecimal(long scaled) {
+        return BigDecimal.valueOf(scaled, SCALE);
+    }
+
+    public static long fromBigDecimal(BigDecimal decimal) {
+        return decimal.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
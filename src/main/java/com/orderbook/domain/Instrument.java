@@ -0,0 +1,58 @@
+package com.orderbook.domain;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class Instrument {
+    private static final int L3_EXPECTED_ORDERS = 1024;
+
+    private final String name;
+    private final int id;
+    private final int writerShard;
+    private final MarketData marketData;
+    private final LongAdder inserts = new LongAdder();
+    private volatile L3Book l3Book;
+
+    Instrument(String name, int id, int writerShard, MarketData marketData) {
+        this.name = name;
+        this.id = id;
+        this.writerShard = writerShard;
+        this.marketData = marketData;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getWriterShard() {
+        return writerShard;
+    }
+
+    public MarketData getMarketData() {
+        return marketData;
+    }
+
+    public L3Book getL3Book() {
+        L3Book current = l3Book;
+        if (current != null) return current;
+        synchronized (this) {
+            if (l3Book == null) l3Book = new L3Book(name, marketData, L3_EXPECTED_ORDERS);
+            return l3Book;
+        }
+    }
+
+    public long getInserts() {
+        return inserts.sum();
+    }
+
+    void recordInsert() {
+        inserts.increment();
+    }
+
+    void recordInserts(long count) {
+        inserts.add(count);
+    }
+}
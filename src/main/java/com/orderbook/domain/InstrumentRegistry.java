@@ -0,0 +1,80 @@
+package com.orderbook.domain;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class InstrumentRegistry {
+    private static final Instrument[] NO_INSTRUMENTS = new Instrument[0];
+
+    private final SymbolTable symbols = new SymbolTable();
+    private final ConcurrentHashMap<String, LadderType> ladderTypes = new ConcurrentHashMap<>();
+    private final int writerShards;
+    private volatile Instrument[] byId = NO_INSTRUMENTS;
+    private volatile Instrument[] registered = NO_INSTRUMENTS;
+
+    public InstrumentRegistry(int writerShards) {
+        if (writerShards < 1) throw new IllegalArgumentException("Writer shards must be positive");
+        this.writerShards = writerShards;
+    }
+
+    public Instrument get(String name) {
+        int id = symbols.find(name);
+        return id < 0 ? null : get(id);
+    }
+
+    public Instrument get(int id) {
+        Instrument[] current = byId;
+        return id < current.length ? current[id] : null;
+    }
+
+    public Instrument getOrRegister(String name) {
+        return getOrRegister(symbols.id(name));
+    }
+
+    public Instrument getOrRegister(int id) {
+        Instrument instrument = get(id);
+        return instrument != null ? instrument : register(id);
+    }
+
+    public Instrument getOrRegister(Quote quote) {
+        int id = quote.instrumentId(symbols);
+        return id < 0 ? getOrRegister(quote.getInstrument()) : getOrRegister(id);
+    }
+
+    public void setLadderType(String name, LadderType ladderType) {
+        if (get(name) != null) {
+            throw new IllegalStateException("Instrument is already registered: " + name);
+        }
+        ladderTypes.put(name, ladderType);
+    }
+
+    public Collection<Instrument> getInstruments() {
+        return List.of(registered);
+    }
+
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    public int getWriterShards() {
+        return writerShards;
+    }
+
+    private synchronized Instrument register(int id) {
+        Instrument instrument = get(id);
+        if (instrument != null) return instrument;
+        String name = symbols.name(id);
+        Instrument[] current = registered;
+        MarketData marketData = new MarketData(ladderTypes.getOrDefault(name, LadderType.SKIP_LIST));
+        instrument = new Instrument(name, id, current.length % writerShards, marketData);
+        Instrument[] ids = Arrays.copyOf(byId, Math.max(byId.length, Math.max(symbols.size(), id + 1)));
+        ids[id] = instrument;
+        byId = ids;
+        Instrument[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = instrument;
+        registered = updated;
+        return instrument;
+    }
+}
@@ -0,0 +1,307 @@
+package com.orderbook.domain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Journal segments plus periodic snapshots. Appends only buffer records; a background syncer forces them to disk
+ * as a group every few milliseconds and advances a durable-record watermark. An appender never forces the file
+ * itself: once too many records are waiting, it blocks until the watermark catches up. The first failed sync
+ * sticks: waiting and later appends rethrow it rather than wait for a watermark that can no longer advance.
+ */
+class JournalStore implements Closeable {
+    private static final String JOURNAL_PREFIX = "journal-";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+    private static final int MAX_UNSYNCED_RECORDS = 4096;
+    private static final long SYNC_INTERVAL_MILLIS = 10;
+
+    private final Path directory;
+    private final InstrumentRegistry registry;
+    private final Object checkpointLock = new Object();
+    private final Object syncLock = new Object();
+    private final Object watermark = new Object();
+    private final AtomicBoolean syncRequested = new AtomicBoolean();
+    private volatile ScheduledExecutorService scheduler;
+    private QuoteJournal journal;
+    private long nextSegment;
+    private volatile long appended;
+    private volatile long durable;
+    private volatile IOException syncFailure;
+
+    JournalStore(Path directory, InstrumentRegistry registry) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.registry = registry;
+    }
+
+    long recover() throws IOException {
+        List<Long> snapshots = segments(SNAPSHOT_PREFIX);
+        List<Long> journals = segments(JOURNAL_PREFIX);
+        Map<String, Long> snapshotVersions = new HashMap<>();
+        long baseSegment = 0;
+        if (!snapshots.isEmpty()) {
+            baseSegment = snapshots.get(snapshots.size() - 1);
+            for (BookSnapshot book : SnapshotFile.read(path(SNAPSHOT_PREFIX, baseSegment))) {
+                registry.getOrRegister(book.getInstrument()).getMarketData().restore(book);
+                snapshotVersions.put(book.getInstrument(), book.getVersion());
+            }
+        }
+        long replayed = 0;
+        for (long segment : journals) {
+            if (segment < baseSegment) continue;
+            replayed += QuoteJournal.replay(path(JOURNAL_PREFIX, segment), (quote, version) -> {
+                if (version > snapshotVersions.getOrDefault(quote.getInstrument(), 0L)) {
+                    registry.getOrRegister(quote).getMarketData().insertQuote(quote);
+                }
+            });
+        }
+        long lastSegment = Math.max(baseSegment, journals.isEmpty() ? 0 : journals.get(journals.size() - 1));
+        synchronized (this) {
+            nextSegment = lastSegment + 1;
+            journal = new QuoteJournal(path(JOURNAL_PREFIX, nextSegment++));
+        }
+        return replayed;
+    }
+
+    void start(Duration checkpointInterval) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::syncQuietly, SYNC_INTERVAL_MILLIS, SYNC_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+        long checkpointMillis = checkpointInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::checkpointQuietly, checkpointMillis, checkpointMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Buffers one record. Callers append while holding the book's write lock, so each instrument's records reach
+     * the file in version order; they call {@link #awaitBacklog()} after releasing it.
+     */
+    synchronized void append(Instrument instrument, Quote quote, long version) {
+        checkSyncFailure();
+        try {
+            journal.append(instrument, quote, version);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        appended++;
+    }
+
+    /** Buffers the operations of an applied batch, numbered from its first version. */
+    synchronized void append(Instrument instrument, LevelBatch levels, long firstVersion) {
+        checkSyncFailure();
+        Quote operation = new Quote();
+        long version = firstVersion;
+        try {
+            for (int level = 0; level < levels.size(); level++) {
+                operation.setTimestamp(levels.timestamp(level));
+                if (levels.isDelete(level)) {
+                    operation.set(instrument.getName(), levels.price(level), 0, levels.side(level));
+                    journal.append(instrument, operation, version++);
+                    appended++;
+                }
+                if (levels.quantity(level) != 0) {
+                    operation.set(instrument.getName(), levels.price(level), levels.quantity(level),
+                            levels.side(level));
+                    journal.append(instrument, operation, version++);
+                    appended++;
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /** Blocks while more than {@value #MAX_UNSYNCED_RECORDS} appended records are not yet durable. */
+    void awaitBacklog() {
+        checkSyncFailure();
+        long target = appended - MAX_UNSYNCED_RECORDS;
+        if (target > durable) awaitDurable(target);
+    }
+
+    /** Forces everything appended so far to disk. */
+    void sync() throws IOException {
+        synchronized (syncLock) {
+            QuoteJournal current;
+            long target;
+            try {
+                synchronized (this) {
+                    current = journal;
+                    current.flush();
+                    target = appended;
+                }
+                if (target > durable) current.force();
+            } catch (IOException ex) {
+                throw syncFailed(ex);
+            }
+            advanceDurable(target);
+        }
+    }
+
+    void checkpoint() throws IOException {
+        synchronized (checkpointLock) {
+            long segment;
+            synchronized (syncLock) {
+                QuoteJournal previous;
+                long target;
+                try {
+                    synchronized (this) {
+                        segment = nextSegment++;
+                        previous = journal;
+                        previous.flush();
+                        target = appended;
+                        journal = new QuoteJournal(path(JOURNAL_PREFIX, segment));
+                    }
+                    previous.close();
+                } catch (IOException ex) {
+                    throw syncFailed(ex);
+                }
+                advanceDurable(target);
+            }
+            List<BookSnapshot> books = new ArrayList<>();
+            for (Instrument instrument : registry.getInstruments()) {
+                BookSnapshot book = instrument.getMarketData().snapshot();
+                if (book.getInstrument() != null) books.add(book);
+            }
+            SnapshotFile.write(path(SNAPSHOT_PREFIX, segment), books);
+            deleteBefore(segment);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (scheduler != null) stopScheduler();
+        synchronized (syncLock) {
+            long target;
+            synchronized (this) {
+                journal.close();
+                target = appended;
+            }
+            advanceDurable(target);
+        }
+    }
+
+    /** Lets an in-flight sync finish: interrupting a thread inside a FileChannel call closes the channel. */
+    private void stopScheduler() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitDurable(long target) {
+        boolean interrupted = false;
+        try {
+            while (durable < target) {
+                checkSyncFailure();
+                requestSync();
+                synchronized (watermark) {
+                    try {
+                        if (durable < target && syncFailure == null) watermark.wait(SYNC_INTERVAL_MILLIS);
+                    } catch (InterruptedException ex) {
+                        interrupted = true;
+                    }
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkSyncFailure() {
+        IOException failure = syncFailure;
+        if (failure != null) throw new UncheckedIOException("Journal sync failed", failure);
+    }
+
+    private IOException syncFailed(IOException ex) {
+        synchronized (watermark) {
+            if (syncFailure == null) syncFailure = ex;
+            watermark.notifyAll();
+        }
+        return ex;
+    }
+
+    private void requestSync() {
+        ScheduledExecutorService current = scheduler;
+        if (current == null) {
+            syncQuietly();
+            return;
+        }
+        if (!syncRequested.compareAndSet(false, true)) return;
+        try {
+            current.execute(() -> {
+                syncRequested.set(false);
+                syncQuietly();
+            });
+        } catch (RejectedExecutionException ex) {
+            syncRequested.set(false);
+        }
+    }
+
+    private void advanceDurable(long target) {
+        synchronized (watermark) {
+            if (target > durable) durable = target;
+            watermark.notifyAll();
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException ex) {
+            System.out.println("Journal sync failed: " + ex.getMessage());
+        }
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (IOException ex) {
+            System.out.println("Checkpoint failed: " + ex.getMessage());
+        }
+    }
+
+    private void deleteBefore(long segment) throws IOException {
+        for (String prefix : new String[] {JOURNAL_PREFIX, SNAPSHOT_PREFIX}) {
+            for (long older : segments(prefix)) {
+                if (older < segment) Files.deleteIfExists(path(prefix, older));
+            }
+        }
+    }
+
+    private List<Long> segments(String prefix) throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segments.add(Long.parseLong(name.substring(prefix.length(), name.length() - SUFFIX.length())));
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private Path path(String prefix, long segment) {
+        return directory.resolve(String.format("%s%020d%s", prefix, segment, SUFFIX));
+    }
+}
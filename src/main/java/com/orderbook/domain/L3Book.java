@@ -0,0 +1,237 @@
+package com.orderbook.domain;
+
+/**
+ * Order-by-order book for one instrument. Orders queue FIFO per price level and are found by id in O(1);
+ * every change is mirrored as a level delta into a {@link MarketData}, which answers the aggregated level
+ * queries. Order and level objects are pooled, so once warmed up the write path does not allocate.
+ */
+public class L3Book {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final String instrument;
+    private final MarketData levels;
+    private final BestPrice bestPrice = new BestPrice();
+    private final LongIndex<Order> orders;
+    private final LongIndex<OrderLevel> bidLevels;
+    private final LongIndex<OrderLevel> askLevels;
+    private Order freeOrders;
+    private OrderLevel freeLevels;
+
+    public L3Book(String instrument) {
+        this(instrument, new MarketData(LadderType.SKIP_LIST), DEFAULT_CAPACITY);
+    }
+
+    public L3Book(String instrument, LadderType ladderType, int expectedOrders) {
+        this(instrument, new MarketData(ladderType), expectedOrders);
+    }
+
+    L3Book(String instrument, MarketData levels, int expectedOrders) {
+        levels.setInstrument(instrument);
+        this.instrument = instrument;
+        this.levels = levels;
+        this.orders = new LongIndex<>(expectedOrders);
+        this.bidLevels = new LongIndex<>(DEFAULT_CAPACITY);
+        this.askLevels = new LongIndex<>(DEFAULT_CAPACITY);
+        for (int i = 0; i < expectedOrders; i++) {
+            Order order = new Order();
+            order.next = freeOrders;
+            freeOrders = order;
+        }
+    }
+
+    public MarketData getMarketData() {
+        return levels;
+    }
+
+    public synchronized void addOrder(long orderId, Side side, long price, long quantity, long timestamp) {
+        validate(orderId, price, quantity);
+        rest(orderId, side, price, quantity, timestamp);
+    }
+
+    /**
+     * Matches an incoming limit order against the opposite side in price-time priority: best price first,
+     * oldest order first within a price. Each fill is reported to the listener and only the unfilled
+     * remainder rests. Returns the remaining quantity.
+     */
+    public synchronized long submitOrder(long orderId, Side side, long price, long quantity, long timestamp,
+                                         TradeListener listener) {
+        validate(orderId, price, quantity);
+        Side opposite = side == Side.BUY ? Side.SELL : Side.BUY;
+        long remaining = quantity;
+        while (remaining > 0) {
+            long best = levels.bestPrice(opposite, bestPrice);
+            if (best == BestPrice.NONE || (side == Side.BUY ? best > price : best < price)) break;
+            OrderLevel level = levels(opposite).get(best);
+            if (level == null) throw new IllegalStateException("Level book is not driven by orders: " + instrument);
+            long filled = 0;
+            int fills = 0;
+            while (remaining > 0 && level.head != null) {
+                Order maker = level.head;
+                long fill = Math.min(remaining, maker.quantity);
+                listener.onTrade(instrument, orderId, maker.id, side, best, fill, timestamp);
+                remaining -= fill;
+                filled += fill;
+                fills++;
+                if (fill == maker.quantity) {
+                    orders.remove(maker.id);
+                    level.unlink(maker);
+                    releaseOrder(maker);
+                } else {
+                    maker.quantity -= fill;
+                    level.totalQuantity -= fill;
+                }
+            }
+            levels.applyLevelDelta(opposite, best, -filled, level.isEmpty(), timestamp, BookActivity.TRADE, fills);
+            release(level);
+        }
+        if (remaining > 0) rest(orderId, side, price, remaining, timestamp);
+        return remaining;
+    }
+
+    /** Cancels every order resting at a price and returns how many were removed. */
+    public synchronized int cancelLevel(Side side, long price, long timestamp) {
+        OrderLevel level = levels(side).get(price);
+        if (level == null) return 0;
+        int cancelled = level.orderCount;
+        while (level.head != null) {
+            Order order = level.head;
+            orders.remove(order.id);
+            level.unlink(order);
+            releaseOrder(order);
+        }
+        levels.applyLevelDelta(side, price, 0, true, timestamp, BookActivity.CANCEL, cancelled);
+        release(level);
+        return cancelled;
+    }
+
+    public synchronized boolean cancelOrder(long orderId, long timestamp) {
+        Order order = orders.remove(orderId);
+        if (order == null) return false;
+        OrderLevel level = order.level;
+        long quantity = order.quantity;
+        level.unlink(order);
+        levels.applyLevelDelta(level.side, level.price, -quantity, level.isEmpty(), timestamp, BookActivity.CANCEL, 1);
+        release(level);
+        releaseOrder(order);
+        return true;
+    }
+
+    /**
+     * Changes the open quantity of an order. A reduction keeps the order's place in the queue, an increase
+     * sends it to the back of its level, and a quantity of zero cancels it.
+     */
+    public synchronized boolean modifyOrder(long orderId, long quantity, long timestamp) {
+        if (quantity < 0) throw new IllegalArgumentException("Order quantity must not be negative: " + orderId);
+        if (quantity == 0) return cancelOrder(orderId, timestamp);
+        Order order = orders.get(orderId);
+        if (order == null) return false;
+        OrderLevel level = order.level;
+        long delta = quantity - order.quantity;
+        if (delta > 0) {
+            level.unlink(order);
+            order.set(orderId, quantity, timestamp);
+            level.append(order);
+        } else {
+            order.quantity = quantity;
+            level.totalQuantity += delta;
+        }
+        if (delta != 0) {
+            levels.applyLevelDelta(level.side, level.price, delta, false, timestamp, BookActivity.AMEND, 1);
+        }
+        return true;
+    }
+
+    public synchronized int getOrderCount() {
+        return orders.size();
+    }
+
+    public synchronized long getOrderQuantity(long orderId) {
+        Order order = orders.get(orderId);
+        return order == null ? 0 : order.quantity;
+    }
+
+    /** Number of orders ahead of the given one at its price, or -1 if the order is not resting. */
+    public synchronized int getQueuePosition(long orderId) {
+        Order order = orders.get(orderId);
+        if (order == null) return -1;
+        int position = 0;
+        for (Order ahead = order.prev; ahead != null; ahead = ahead.prev) {
+            position++;
+        }
+        return position;
+    }
+
+    public synchronized int getOrderCount(Side side, long price) {
+        OrderLevel level = levels(side).get(price);
+        return level == null ? 0 : level.orderCount;
+    }
+
+    public synchronized long getLevelQuantity(Side side, long price) {
+        OrderLevel level = levels(side).get(price);
+        return level == null ? 0 : level.totalQuantity;
+    }
+
+    public synchronized long[] getOrderIds(Side side, long price) {
+        OrderLevel level = levels(side).get(price);
+        if (level == null) return new long[0];
+        long[] ids = new long[level.orderCount];
+        int i = 0;
+        for (Order order = level.head; order != null; order = order.next) {
+            ids[i++] = order.id;
+        }
+        return ids;
+    }
+
+    private void validate(long orderId, long price, long quantity) {
+        if (!levels.acceptsPrice(price)) {
+            throw new IllegalArgumentException("Price is outside the ladder range: " + orderId);
+        }
+        if (quantity <= 0) throw new IllegalArgumentException("Order quantity must be positive: " + orderId);
+        if (orders.get(orderId) != null) throw new IllegalArgumentException("Duplicate order id: " + orderId);
+    }
+
+    private void rest(long orderId, Side side, long price, long quantity, long timestamp) {
+        Order order = allocateOrder();
+        order.set(orderId, quantity, timestamp);
+        orders.put(orderId, order);
+        level(side, price).append(order);
+        levels.applyLevelDelta(side, price, quantity, false, timestamp, BookActivity.UPDATE, 1);
+    }
+
+    private LongIndex<OrderLevel> levels(Side side) {
+        return side == Side.BUY ? bidLevels : askLevels;
+    }
+
+    private OrderLevel level(Side side, long price) {
+        LongIndex<OrderLevel> index = levels(side);
+        OrderLevel level = index.get(price);
+        if (level == null) {
+            level = freeLevels;
+            if (level == null) level = new OrderLevel();
+            else freeLevels = level.nextFree;
+            level.set(side, price);
+            index.put(price, level);
+        }
+        return level;
+    }
+
+    private void release(OrderLevel level) {
+        if (!level.isEmpty()) return;
+        levels(level.side).remove(level.price);
+        level.nextFree = freeLevels;
+        freeLevels = level;
+    }
+
+    private Order allocateOrder() {
+        Order order = freeOrders;
+        if (order == null) return new Order();
+        freeOrders = order.next;
+        order.next = null;
+        return order;
+    }
+
+    private void releaseOrder(Order order) {
+        order.next = freeOrders;
+        freeOrders = order;
+    }
+}
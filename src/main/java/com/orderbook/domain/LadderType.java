@@ -0,0 +1,22 @@
+package com.orderbook.domain;
+
+public enum LadderType {
+    SKIP_LIST,
+    ARRAY,
+    OFF_HEAP;
+
+    private static final long ARRAY_MIN_PRICE = 0;
+    private static final long ARRAY_MAX_PRICE = 100_000;
+
+    PriceLadder create(boolean higherIsBetter) {
+        return switch (this) {
+            case SKIP_LIST -> new SkipListLadder(higherIsBetter);
+            case ARRAY -> new ArrayLadder(ARRAY_MIN_PRICE, ARRAY_MAX_PRICE, higherIsBetter);
+            case OFF_HEAP -> new OffHeapLadder(higherIsBetter);
+        };
+    }
+
+    boolean accepts(long price) {
+        return this != ARRAY || (price >= ARRAY_MIN_PRICE && price <= ARRAY_MAX_PRICE);
+    }
+}
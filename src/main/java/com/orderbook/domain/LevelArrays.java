@@ -0,0 +1,48 @@
+package com.orderbook.domain;
+
+import java.util.Arrays;
+
+class LevelArrays implements LevelVisitor {
+    private static final int INITIAL_CAPACITY = 16;
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private long[] quantities = new long[INITIAL_CAPACITY];
+    private int limit;
+    private int count;
+
+    void walk(PriceLadder ladder, int limit) {
+        this.limit = limit;
+        count = 0;
+        if (limit > 0) ladder.forEach(this);
+    }
+
+    int size() {
+        return count;
+    }
+
+    long price(int index) {
+        return prices[index];
+    }
+
+    long quantity(int index) {
+        return quantities[index];
+    }
+
+    long[] copyPrices() {
+        return Arrays.copyOf(prices, count);
+    }
+
+    long[] copyQuantities() {
+        return Arrays.copyOf(quantities, count);
+    }
+
+    @Override
+    public boolean visit(long price, long quantity) {
+        if (count == prices.length) {
+            prices = Arrays.copyOf(prices, prices.length * 2);
+            quantities = Arrays.copyOf(quantities, quantities.length * 2);
+        }
+        prices[count] = price;
+        quantities[count] = quantity;
+        return ++count < limit;
+    }
+}
@@ -0,0 +1,158 @@
+package com.orderbook.domain;
+
+import java.util.Arrays;
+
+class LevelBatch {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int instrumentId;
+    private final String instrument;
+    private Side[] sides = new Side[INITIAL_CAPACITY];
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private long[] quantities = new long[INITIAL_CAPACITY];
+    private boolean[] deletes = new boolean[INITIAL_CAPACITY];
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private int[] updates = new int[INITIAL_CAPACITY];
+    private int[] cancels = new int[INITIAL_CAPACITY];
+    private long[] updatedQuantities = new long[INITIAL_CAPACITY];
+    private int[] table = new int[2 * INITIAL_CAPACITY];
+    private int size;
+    private int quotes;
+
+    LevelBatch(int instrumentId, String instrument) {
+        this.instrumentId = instrumentId;
+        this.instrument = instrument;
+    }
+
+    void add(Quote quote) {
+        int level = level(quote.getSide(), quote.getScaledPrice());
+        long quantity = quote.getScaledQuantity();
+        if (quantity == 0) {
+            deletes[level] = true;
+            quantities[level] = 0;
+            cancels[level]++;
+        } else {
+            quantities[level] += quantity;
+            updates[level]++;
+            updatedQuantities[level] += quantity;
+        }
+        timestamps[level] = quote.getTimestamp();
+        quotes++;
+    }
+
+    void clear() {
+        Arrays.fill(table, 0);
+        size = 0;
+        quotes = 0;
+    }
+
+    int getInstrumentId() {
+        return instrumentId;
+    }
+
+    String getInstrument() {
+        return instrument;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int getQuoteCount() {
+        return quotes;
+    }
+
+    int getOperationCount() {
+        int operations = 0;
+        for (int i = 0; i < size; i++) {
+            if (deletes[i]) operations++;
+            if (quantities[i] != 0) operations++;
+        }
+        return operations;
+    }
+
+    Side side(int level) {
+        return sides[level];
+    }
+
+    long price(int level) {
+        return prices[level];
+    }
+
+    long quantity(int level) {
+        return quantities[level];
+    }
+
+    boolean isDelete(int level) {
+        return deletes[level];
+    }
+
+    long timestamp(int level) {
+        return timestamps[level];
+    }
+
+    /** Non-zero quotes folded into the level, counted one by one as single inserts would record them. */
+    int updates(int level) {
+        return updates[level];
+    }
+
+    long updatedQuantity(int level) {
+        return updatedQuantities[level];
+    }
+
+    /** Zero-quantity quotes folded into the level. */
+    int cancels(int level) {
+        return cancels[level];
+    }
+
+    private int level(Side side, long price) {
+        int mask = table.length - 1;
+        int slot = hash(side, price) & mask;
+        int entry;
+        while ((entry = table[slot]) != 0) {
+            int level = entry - 1;
+            if (prices[level] == price && sides[level] == side) return level;
+            slot = (slot + 1) & mask;
+        }
+        if (size == prices.length) {
+            grow();
+            return level(side, price);
+        }
+        int level = size++;
+        sides[level] = side;
+        prices[level] = price;
+        quantities[level] = 0;
+        deletes[level] = false;
+        updates[level] = 0;
+        cancels[level] = 0;
+        updatedQuantities[level] = 0;
+        table[slot] = level + 1;
+        return level;
+    }
+
+    private void grow() {
+        int capacity = prices.length * 2;
+        sides = Arrays.copyOf(sides, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        deletes = Arrays.copyOf(deletes, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        updates = Arrays.copyOf(updates, capacity);
+        cancels = Arrays.copyOf(cancels, capacity);
+        updatedQuantities = Arrays.copyOf(updatedQuantities, capacity);
+        table = new int[2 * capacity];
+        int mask = table.length - 1;
+        for (int level = 0; level < size; level++) {
+            int slot = hash(sides[level], prices[level]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = level + 1;
+        }
+    }
+
+    private static int hash(Side side, long price) {
+        long hash = price * 0x9E3779B97F4A7C15L + side.ordinal();
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,56 @@
+package com.orderbook.domain;
+
+class LevelTotals implements LevelVisitor {
+    private int limit;
+    private int sideCount;
+    private int count;
+    private long price;
+    private long quantity;
+    private final NotionalSum notional = new NotionalSum();
+
+    void walk(int limit, PriceLadder first, PriceLadder second) {
+        this.limit = limit;
+        this.count = 0;
+        this.price = 0;
+        this.quantity = 0;
+        notional.clear();
+        sideCount = 0;
+        first.forEach(this);
+        sideCount = 0;
+        second.forEach(this);
+    }
+
+    void set(int count, long price, long quantity, NotionalSum firstNotional, NotionalSum secondNotional) {
+        this.count = count;
+        this.price = price;
+        this.quantity = quantity;
+        notional.set(firstNotional);
+        notional.add(secondNotional);
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    long getPrice() {
+        return price;
+    }
+
+    long getQuantity() {
+        return quantity;
+    }
+
+    NotionalSum getNotional() {
+        return notional;
+    }
+
+    @Override
+    public boolean visit(long price, long quantity) {
+        if (sideCount == limit) return false;
+        this.price += price;
+        this.quantity += quantity;
+        notional.add(price, quantity);
+        count++;
+        return ++sideCount < limit;
+    }
+}
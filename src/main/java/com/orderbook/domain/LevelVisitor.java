@@ -0,0 +1,5 @@
+package com.orderbook.domain;
+
+interface LevelVisitor {
+    boolean visit(long price, long quantity);
+}
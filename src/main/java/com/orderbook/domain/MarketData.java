@@ -2,89 +2,558 @@ package com.orderbook.domain;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.stream.Stream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.StampedLock;
 
 public class MarketData {
-    private final ConcurrentSkipListMap<BigDecimal, Quote> bidPriceToQuoteMap = new ConcurrentSkipListMap<>(Collections.reverseOrder());
-    private final ConcurrentSkipListMap<BigDecimal, Quote> askPriceToQuoteMap = new ConcurrentSkipListMap<>();
+    private static final int[] DEFAULT_AGGREGATE_DEPTHS = {1, 5, 10, 20};
+    private static final BookSubscription[] NO_SUBSCRIPTIONS = new BookSubscription[0];
 
-    public void insertQuote(Quote quote) {
-        switch (quote.getSide()) {
-            case BUY -> insertQuote(quote, bidPriceToQuoteMap);
-            case SELL -> insertQuote(quote, askPriceToQuoteMap);
+    private final PriceLadder bidLadder;
+    private final PriceLadder askLadder;
+    private final DepthAggregates bidAggregates;
+    private final DepthAggregates askAggregates;
+    private final LadderType ladderType;
+    private final StampedLock lock = new StampedLock();
+    private final RollingWindow[] windows;
+    private final BestPrice bestPrice = new BestPrice();
+    private final int topLevelIndex;
+    private volatile String instrument;
+    private long version;
+    private volatile BookSnapshot lastSnapshot;
+    private volatile BookSubscription[] subscriptions = NO_SUBSCRIPTIONS;
+
+    public MarketData() {
+        this(LadderType.SKIP_LIST);
+    }
+
+    public MarketData(int... aggregateDepths) {
+        this(LadderType.SKIP_LIST, aggregateDepths);
+    }
+
+    public MarketData(LadderType ladderType) {
+        this(ladderType, DEFAULT_AGGREGATE_DEPTHS);
+    }
+
+    public MarketData(LadderType ladderType, int... aggregateDepths) {
+        this.ladderType = ladderType;
+        this.bidLadder = ladderType.create(true);
+        this.askLadder = ladderType.create(false);
+        this.bidAggregates = new DepthAggregates(aggregateDepths, true);
+        this.askAggregates = new DepthAggregates(aggregateDepths, false);
+        this.topLevelIndex = bidAggregates.depthIndex(1);
+        this.windows = new RollingWindow[StatsWindow.values().length];
+        for (StatsWindow window : StatsWindow.values()) {
+            windows[window.ordinal()] = new RollingWindow(window);
+        }
+    }
+
+    public long insertQuote(Quote quote) {
+        return insertQuote(quote, null, null);
+    }
+
+    /** Applies a quote and, when a journal is given, appends it under the write lock so records follow versions. */
+    long insertQuote(Quote quote, JournalStore journal, Instrument journalInstrument) {
+        checkPrice(quote.getScaledPrice());
+        if (instrument == null) instrument = quote.getInstrument();
+        long stamp = lock.writeLock();
+        long newVersion;
+        try {
+            switch (quote.getSide()) {
+                case BUY -> applyQuote(quote, bidLadder, bidAggregates);
+                case SELL -> applyQuote(quote, askLadder, askAggregates);
+            }
+            newVersion = ++version;
+            recordActivity(quote.getTimestamp(), quote.getScaledPrice(), quote.getScaledQuantity());
+            recordSpread(quote.getTimestamp());
+            if (journal != null) journal.append(journalInstrument, quote, newVersion);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        for (BookSubscription subscription : subscriptions) {
+            subscription.onChange();
+        }
+        return newVersion;
+    }
+
+    public BookSubscription subscribe(int depth, BookListener listener, Executor executor) {
+        BookSubscription subscription = new BookSubscription(this, depth, listener, executor);
+        synchronized (this) {
+            BookSubscription[] current = subscriptions;
+            BookSubscription[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = subscription;
+            subscriptions = updated;
+        }
+        subscription.onChange();
+        return subscription;
+    }
+
+    synchronized void unsubscribe(BookSubscription subscription) {
+        BookSubscription[] current = subscriptions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription) {
+                BookSubscription[] updated = new BookSubscription[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                subscriptions = updated;
+                return;
+            }
+        }
+    }
+
+    long applyBatch(LevelBatch batch) {
+        return applyBatch(batch, null, null);
+    }
+
+    long applyBatch(LevelBatch batch, JournalStore journal, Instrument journalInstrument) {
+        if (!accepts(batch)) throw new IllegalArgumentException("Price is outside the ladder range");
+        if (instrument == null) instrument = batch.getInstrument();
+        long stamp = lock.writeLock();
+        long firstVersion;
+        boolean bidsStale = false;
+        boolean asksStale = false;
+        long latestTimestamp = Long.MIN_VALUE;
+        try {
+            for (int level = 0; level < batch.size(); level++) {
+                long price = batch.price(level);
+                boolean delete = batch.isDelete(level);
+                long quantity = batch.quantity(level);
+                switch (batch.side(level)) {
+                    case BUY -> bidsStale = applyLevel(price, delete, quantity, bidLadder, bidAggregates, bidsStale);
+                    case SELL -> asksStale = applyLevel(price, delete, quantity, askLadder, askAggregates, asksStale);
+                }
+                recordBatchActivity(batch, level);
+                latestTimestamp = Math.max(latestTimestamp, batch.timestamp(level));
+            }
+            firstVersion = version + 1;
+            version += batch.getOperationCount();
+            if (journal != null) journal.append(journalInstrument, batch, firstVersion);
+        } finally {
+            if (bidsStale) recompute(bidLadder, bidAggregates);
+            if (asksStale) recompute(askLadder, askAggregates);
+            if (latestTimestamp != Long.MIN_VALUE) recordSpread(latestTimestamp);
+            lock.unlockWrite(stamp);
+        }
+        for (BookSubscription subscription : subscriptions) {
+            subscription.onChange();
+        }
+        return firstVersion;
+    }
+
+    /** Applies an order-driven change to one level; {@code events} is how many orders the activity touched. */
+    long applyLevelDelta(Side side, long price, long delta, boolean removeLevel, long timestamp,
+                         BookActivity activity, int events) {
+        checkPrice(price);
+        long stamp = lock.writeLock();
+        long newVersion;
+        try {
+            PriceLadder ladder = side == Side.BUY ? bidLadder : askLadder;
+            DepthAggregates aggregates = side == Side.BUY ? bidAggregates : askAggregates;
+            if (applyLevel(price, removeLevel, removeLevel ? 0 : delta, ladder, aggregates, false)) {
+                recompute(ladder, aggregates);
+            }
+            newVersion = ++version;
+            recordActivity(activity, events, timestamp, price, Math.abs(delta));
+            recordSpread(timestamp);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        for (BookSubscription subscription : subscriptions) {
+            subscription.onChange();
+        }
+        return newVersion;
+    }
+
+    /** Whether a price fits this book's ladders; quotes outside it are rejected rather than applied. */
+    public boolean acceptsPrice(long price) {
+        return ladderType.accepts(price);
+    }
+
+    boolean accepts(LevelBatch batch) {
+        if (ladderType != LadderType.ARRAY) return true;
+        for (int level = 0; level < batch.size(); level++) {
+            if (!ladderType.accepts(batch.price(level))) return false;
+        }
+        return true;
+    }
+
+    long bestPrice(Side side, BestPrice scratch) {
+        PriceLadder ladder = side == Side.BUY ? bidLadder : askLadder;
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            long price = scratch.of(ladder);
+            if (lock.validate(stamp)) return price;
+        }
+        stamp = lock.readLock();
+        try {
+            return scratch.of(ladder);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    void setInstrument(String instrument) {
+        if (this.instrument == null) this.instrument = instrument;
+    }
+
+    void restore(BookSnapshot snapshot) {
+        instrument = snapshot.getInstrument();
+        long stamp = lock.writeLock();
+        try {
+            if (version != 0) {
+                throw new IllegalStateException("Market data is not empty: " + instrument);
+            }
+            restore(snapshot.getBids(), bidLadder, bidAggregates);
+            restore(snapshot.getAsks(), askLadder, askAggregates);
+            version = snapshot.getVersion();
+        } finally {
+            lock.unlockWrite(stamp);
         }
     }
 
     public BigDecimal averagePriceOverNLevels(int n) {
-        List<Quote> asks = getTopNAsks(n);
-        List<Quote> bids = getTopNBids(n);
-        int itemCount = asks.size() + bids.size();
-        if (itemCount == 0) return BigDecimal.ZERO;
-        return Stream.concat(asks.stream(),bids.stream())
-                .map(Quote::getPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(BigDecimal.valueOf(itemCount), 8, RoundingMode.HALF_UP);
+        int k = askAggregates.depthIndex(n);
+        if (k < 0) return averagePriceByWalking(n);
+        long stamp = lock.tryOptimisticRead();
+        long totalPrice = askAggregates.price(k) + bidAggregates.price(k);
+        int itemCount = askAggregates.count(k) + bidAggregates.count(k);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                totalPrice = askAggregates.price(k) + bidAggregates.price(k);
+                itemCount = askAggregates.count(k) + bidAggregates.count(k);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return averagePrice(totalPrice, itemCount);
     }
 
     public BigDecimal totalQuantityOverNLevels(int n) {
-        return Stream.concat(getTopNAsks(n).stream(), getTopNBids(n).stream())
-                .map(Quote::getQuantity)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        int k = askAggregates.depthIndex(n);
+        if (k < 0) return totalQuantityByWalking(n);
+        long stamp = lock.tryOptimisticRead();
+        long totalQuantity = askAggregates.quantity(k) + bidAggregates.quantity(k);
+        int itemCount = askAggregates.count(k) + bidAggregates.count(k);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                totalQuantity = askAggregates.quantity(k) + bidAggregates.quantity(k);
+                itemCount = askAggregates.count(k) + bidAggregates.count(k);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return totalQuantity(totalQuantity, itemCount);
     }
 
     public BigDecimal volumeWeightedPriceOverNLevels(int n) {
-        List<Quote> asks = getTopNAsks(n);
-        List<Quote> bids = getTopNBids(n);
-        BigDecimal totalQuantity = Stream.concat(asks.stream(), bids.stream())
-                                        .map(Quote::getQuantity)
-                                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-        if (BigDecimal.ZERO.compareTo(totalQuantity) == 0) return BigDecimal.ZERO;
-        return Stream.concat(asks.stream(), bids.stream())
-                    .map(quote -> quote.getPrice().multiply(quote.getQuantity()))
-                    .reduce(BigDecimal.ZERO, BigDecimal::add)
-                    .divide(totalQuantity, 8, RoundingMode.HALF_UP);
+        int k = askAggregates.depthIndex(n);
+        if (k < 0) return volumeWeightedPriceByWalking(n);
+        long stamp = lock.tryOptimisticRead();
+        NotionalSum totalNotional = new NotionalSum();
+        long totalQuantity = askAggregates.quantity(k) + bidAggregates.quantity(k);
+        totalNotional.set(askAggregates.notional(k));
+        totalNotional.add(bidAggregates.notional(k));
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                totalQuantity = askAggregates.quantity(k) + bidAggregates.quantity(k);
+                totalNotional.set(askAggregates.notional(k));
+                totalNotional.add(bidAggregates.notional(k));
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return volumeWeightedPrice(totalNotional, totalQuantity);
+    }
+
+    void depthTotals(int n, LevelTotals totals) {
+        int k = askAggregates.depthIndex(n);
+        if (k < 0) {
+            sumsByWalking(n, totals);
+            return;
+        }
+        long stamp = lock.tryOptimisticRead();
+        readAggregates(k, totals);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                readAggregates(k, totals);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    long readLevels(int depth, LevelArrays bids, LevelArrays asks) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            long levelsVersion = version;
+            bids.walk(bidLadder, depth);
+            asks.walk(askLadder, depth);
+            if (lock.validate(stamp)) return levelsVersion;
+        }
+        stamp = lock.readLock();
+        try {
+            bids.walk(bidLadder, depth);
+            asks.walk(askLadder, depth);
+            return version;
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
     public List<Quote> getBids() {
-        return bidPriceToQuoteMap.values().stream().toList();
+        return levels(bidLadder, Side.BUY, Integer.MAX_VALUE);
     }
 
     public List<Quote> getAsks() {
-        return askPriceToQuoteMap.values().stream().toList();
+        return levels(askLadder, Side.SELL, Integer.MAX_VALUE);
     }
 
     public Quote getTopAsk() {
-        Map.Entry<BigDecimal, Quote> entry = askPriceToQuoteMap.firstEntry();
-        if (entry == null) return null;
-        return entry.getValue();
+        List<Quote> levels = levels(askLadder, Side.SELL, 1);
+        return levels.isEmpty() ? null : levels.get(0);
     }
 
     public Quote getTopBid() {
-        Map.Entry<BigDecimal, Quote> entry = bidPriceToQuoteMap.firstEntry();
-        if (entry == null) return null;
-        return entry.getValue();
+        List<Quote> levels = levels(bidLadder, Side.BUY, 1);
+        return levels.isEmpty() ? null : levels.get(0);
     }
 
-    private List<Quote> getTopNAsks(int n) {
-        return askPriceToQuoteMap.values().stream().limit(n).toList();
+    public BookSnapshot snapshot() {
+        BookSnapshot cached = lastSnapshot;
+        long stamp = lock.tryOptimisticRead();
+        if (cached != null && cached.getVersion() == version && lock.validate(stamp)) return cached;
+        BookSnapshot snapshot = snapshot(Integer.MAX_VALUE);
+        lastSnapshot = snapshot;
+        return snapshot;
     }
 
-    private List<Quote> getTopNBids(int n) {
-        return bidPriceToQuoteMap.values().stream().limit(n).toList();
+    public BookSnapshot snapshot(int levels) {
+        LevelArrays bids = new LevelArrays();
+        LevelArrays asks = new LevelArrays();
+        long snapshotVersion = readLevels(levels, bids, asks);
+        return new BookSnapshot(instrument, snapshotVersion, bids.copyPrices(), bids.copyQuantities(),
+                asks.copyPrices(), asks.copyQuantities());
     }
 
-    private void insertQuote(Quote quote, ConcurrentSkipListMap<BigDecimal, Quote> priceToQuoteMap) {
-        if (BigDecimal.ZERO.compareTo(quote.getQuantity()) == 0) {
-            priceToQuoteMap.remove(quote.getPrice());
-        } else if (priceToQuoteMap.containsKey(quote.getPrice())) {
-            Quote existingQuote = priceToQuoteMap.get(quote.getPrice());
-            existingQuote.addQuantity(quote.getQuantity());
-        } else {
-            priceToQuoteMap.put(quote.getPrice(), quote);
+    public WindowStats windowStats(StatsWindow window) {
+        return windowStats(window, System.currentTimeMillis());
+    }
+
+    public WindowStats windowStats(StatsWindow window, long asOfMillis) {
+        long stamp = lock.readLock();
+        try {
+            return windows[window.ordinal()].stats(instrument, asOfMillis);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int getBidDepth() {
+        return depth(bidLadder);
+    }
+
+    public int getAskDepth() {
+        return depth(askLadder);
+    }
+
+    private int depth(PriceLadder ladder) {
+        long stamp = lock.tryOptimisticRead();
+        int depth = ladder.size();
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                depth = ladder.size();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return depth;
+    }
+
+    private List<Quote> levels(PriceLadder ladder, Side side, int limit) {
+        LevelCollector collector = new LevelCollector(instrument, side, limit);
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            ladder.forEach(collector);
+            if (lock.validate(stamp)) return collector.levels;
+            collector.levels.clear();
+        }
+        stamp = lock.readLock();
+        try {
+            ladder.forEach(collector);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        return collector.levels;
+    }
+
+    private void sumsByWalking(int n, LevelTotals totals) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            totals.walk(n, askLadder, bidLadder);
+            if (lock.validate(stamp)) return;
+        }
+        stamp = lock.readLock();
+        try {
+            totals.walk(n, askLadder, bidLadder);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void readAggregates(int k, LevelTotals totals) {
+        totals.set(askAggregates.count(k) + bidAggregates.count(k),
+                askAggregates.price(k) + bidAggregates.price(k),
+                askAggregates.quantity(k) + bidAggregates.quantity(k),
+                askAggregates.notional(k), bidAggregates.notional(k));
+    }
+
+    private BigDecimal averagePriceByWalking(int n) {
+        LevelTotals totals = new LevelTotals();
+        sumsByWalking(n, totals);
+        return averagePrice(totals.getPrice(), totals.getCount());
+    }
+
+    private BigDecimal totalQuantityByWalking(int n) {
+        LevelTotals totals = new LevelTotals();
+        sumsByWalking(n, totals);
+        return totalQuantity(totals.getQuantity(), totals.getCount());
+    }
+
+    private BigDecimal volumeWeightedPriceByWalking(int n) {
+        LevelTotals totals = new LevelTotals();
+        sumsByWalking(n, totals);
+        return volumeWeightedPrice(totals.getNotional(), totals.getQuantity());
+    }
+
+    static BigDecimal averagePrice(long totalPrice, int itemCount) {
+        if (itemCount == 0) return BigDecimal.ZERO;
+        return FixedPoint.toBigDecimal(totalPrice)
+                .divide(BigDecimal.valueOf(itemCount), 8, RoundingMode.HALF_UP);
+    }
+
+    static BigDecimal totalQuantity(long totalQuantity, int itemCount) {
+        if (itemCount == 0) return BigDecimal.ZERO;
+        return FixedPoint.toBigDecimal(totalQuantity);
+    }
+
+    static BigDecimal volumeWeightedPrice(long totalNotional, long totalQuantity) {
+        if (totalQuantity == 0) return BigDecimal.ZERO;
+        return volumeWeightedPrice(BigDecimal.valueOf(totalNotional, 2 * FixedPoint.SCALE), totalQuantity);
+    }
+
+    static BigDecimal volumeWeightedPrice(NotionalSum totalNotional, long totalQuantity) {
+        if (totalQuantity == 0) return BigDecimal.ZERO;
+        return volumeWeightedPrice(totalNotional.toBigDecimal(), totalQuantity);
+    }
+
+    private static BigDecimal volumeWeightedPrice(BigDecimal totalNotional, long totalQuantity) {
+        return totalNotional.divide(FixedPoint.toBigDecimal(totalQuantity), 8, RoundingMode.HALF_UP);
+    }
+
+    private void checkPrice(long price) {
+        if (!ladderType.accepts(price)) throw new IllegalArgumentException("Price is outside the ladder range");
+    }
+
+    private void applyQuote(Quote quote, PriceLadder ladder, DepthAggregates aggregates) {
+        long quantity = quote.getScaledQuantity();
+        if (applyLevel(quote.getScaledPrice(), quantity == 0, quantity, ladder, aggregates, false)) {
+            recompute(ladder, aggregates);
+        }
+    }
+
+    private static boolean applyLevel(long price, boolean delete, long quantity, PriceLadder ladder,
+                                      DepthAggregates aggregates, boolean stale) {
+        if (delete) {
+            boolean affectsAggregates = stale || aggregates.affects(price);
+            if (ladder.remove(price) && affectsAggregates) stale = true;
+        }
+        if (quantity != 0) {
+            if (ladder.add(price, quantity)) {
+                if (stale || aggregates.affects(price)) stale = true;
+            } else if (!stale) {
+                aggregates.onQuantityChange(price, quantity);
+            }
+        }
+        return stale;
+    }
+
+    private void recordActivity(long timestamp, long price, long quantity) {
+        recordActivity(quantity == 0 ? BookActivity.CANCEL : BookActivity.UPDATE, 1, timestamp, price, quantity);
+    }
+
+    private void recordBatchActivity(LevelBatch batch, int level) {
+        long timestamp = batch.timestamp(level);
+        long price = batch.price(level);
+        if (batch.updates(level) > 0) {
+            recordActivity(BookActivity.UPDATE, batch.updates(level), timestamp, price, batch.updatedQuantity(level));
+        }
+        if (batch.cancels(level) > 0) recordActivity(BookActivity.CANCEL, batch.cancels(level), timestamp, price, 0);
+    }
+
+    private void recordActivity(BookActivity activity, int events, long timestamp, long price, long quantity) {
+        for (RollingWindow window : windows) {
+            switch (activity) {
+                case UPDATE -> window.recordUpdates(timestamp, price, quantity, events);
+                case CANCEL -> window.recordCancels(timestamp, events);
+                case AMEND -> window.recordAmend(timestamp);
+                case TRADE -> window.recordTrades(timestamp, price, quantity, events);
+            }
+        }
+    }
+
+    private void recordSpread(long timestamp) {
+        long bid = bestPrice(bidLadder, bidAggregates);
+        long ask = bestPrice(askLadder, askAggregates);
+        if (bid == BestPrice.NONE || ask == BestPrice.NONE) return;
+        for (RollingWindow window : windows) {
+            window.recordSpread(timestamp, ask - bid);
+        }
+    }
+
+    private long bestPrice(PriceLadder ladder, DepthAggregates aggregates) {
+        if (topLevelIndex < 0) return bestPrice.of(ladder);
+        return aggregates.count(topLevelIndex) == 0 ? BestPrice.NONE : aggregates.price(topLevelIndex);
+    }
+
+    private static void restore(List<Quote> levels, PriceLadder ladder, DepthAggregates aggregates) {
+        for (Quote level : levels) {
+            ladder.add(level.getScaledPrice(), level.getScaledQuantity());
+        }
+        recompute(ladder, aggregates);
+    }
+
+    private static void recompute(PriceLadder ladder, DepthAggregates aggregates) {
+        aggregates.beginRecompute();
+        ladder.forEach(aggregates);
+        aggregates.endRecompute();
+    }
+
+    private static class LevelCollector implements LevelVisitor {
+        private final String instrument;
+        private final Side side;
+        private final int limit;
+        private final List<Quote> levels = new ArrayList<>();
+
+        private LevelCollector(String instrument, Side side, int limit) {
+            this.instrument = instrument;
+            this.side = side;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean visit(long price, long quantity) {
+            Quote level = new Quote();
+            level.set(instrument, price, quantity, side);
+            levels.add(level);
+            return levels.size() < limit;
         }
     }
 }
@@ -0,0 +1,53 @@
+package com.orderbook.domain;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Signed 128-bit sum of price x quantity products, in units of 10^-(2 x {@link FixedPoint#SCALE}). One product of
+ * two in-range fixed-point values can already exceed a long, so the high word comes from {@link Math#multiplyHigh}.
+ */
+final class NotionalSum {
+    private long high;
+    private long low;
+
+    void clear() {
+        high = 0;
+        low = 0;
+    }
+
+    void set(NotionalSum other) {
+        high = other.high;
+        low = other.low;
+    }
+
+    void add(long price, long quantity) {
+        addWords(Math.multiplyHigh(price, quantity), price * quantity);
+    }
+
+    void add(NotionalSum other) {
+        addWords(other.high, other.low);
+    }
+
+    boolean fitsInLong() {
+        return high == low >> 63;
+    }
+
+    /** The sum itself when {@link #fitsInLong()}, otherwise its low 64 bits. */
+    long longValue() {
+        return low;
+    }
+
+    BigDecimal toBigDecimal() {
+        if (fitsInLong()) return BigDecimal.valueOf(low, 2 * FixedPoint.SCALE);
+        BigInteger value = BigInteger.valueOf(high).shiftLeft(Long.SIZE)
+                .add(new BigInteger(Long.toUnsignedString(low)));
+        return new BigDecimal(value, 2 * FixedPoint.SCALE);
+    }
+
+    private void addWords(long addHigh, long addLow) {
+        long sum = low + addLow;
+        high += addHigh + (Long.compareUnsigned(sum, low) < 0 ? 1 : 0);
+        low = sum;
+    }
+}
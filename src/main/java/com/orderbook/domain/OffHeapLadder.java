@@ -0,0 +1,109 @@
+package com.orderbook.domain;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+class OffHeapLadder implements PriceLadder {
+    private static final int LEVEL_BYTES = 2 * Long.BYTES;
+    private static final int INITIAL_LEVELS = 64;
+
+    private final boolean higherIsBetter;
+    private ByteBuffer levels = allocate(INITIAL_LEVELS);
+    private int size;
+
+    OffHeapLadder(boolean higherIsBetter) {
+        this.higherIsBetter = higherIsBetter;
+    }
+
+    @Override
+    public boolean add(long price, long quantity) {
+        int index = search(price);
+        if (index >= 0) {
+            int offset = index * LEVEL_BYTES + Long.BYTES;
+            levels.putLong(offset, levels.getLong(offset) + quantity);
+            return false;
+        }
+        index = -index - 1;
+        if (size == capacity(levels)) grow();
+        shift(index, index + 1, size - index);
+        levels.putLong(index * LEVEL_BYTES, price);
+        levels.putLong(index * LEVEL_BYTES + Long.BYTES, quantity);
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(long price) {
+        int index = search(price);
+        if (index < 0) return false;
+        shift(index + 1, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void forEach(LevelVisitor visitor) {
+        ByteBuffer current = levels;
+        for (int index = Math.min(size, capacity(current)) - 1; index >= 0; index--) {
+            int offset = index * LEVEL_BYTES;
+            if (!visitor.visit(current.getLong(offset), current.getLong(offset + Long.BYTES))) return;
+        }
+    }
+
+    private int search(long price) {
+        long key = key(price);
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = key(levels.getLong(mid * LEVEL_BYTES));
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private long key(long price) {
+        return higherIsBetter ? price : -price;
+    }
+
+    private void shift(int from, int to, int count) {
+        if (count <= 0) return;
+        int words = count * 2;
+        int source = from * 2;
+        int target = to * 2;
+        if (target > source) {
+            for (int i = words - 1; i >= 0; i--) {
+                levels.putLong((target + i) * Long.BYTES, levels.getLong((source + i) * Long.BYTES));
+            }
+        } else {
+            for (int i = 0; i < words; i++) {
+                levels.putLong((target + i) * Long.BYTES, levels.getLong((source + i) * Long.BYTES));
+            }
+        }
+    }
+
+    private void grow() {
+        ByteBuffer grown = allocate(capacity(levels) * 2);
+        grown.put(0, levels, 0, size * LEVEL_BYTES);
+        levels = grown;
+    }
+
+    private static int capacity(ByteBuffer buffer) {
+        return buffer.capacity() / LEVEL_BYTES;
+    }
+
+    private static ByteBuffer allocate(int levels) {
+        return ByteBuffer.allocateDirect(levels * LEVEL_BYTES).order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,22 @@
+package com.orderbook.domain;
+
+class Order {
+    long id;
+    long quantity;
+    long timestamp;
+    OrderLevel level;
+    Order prev;
+    Order next;
+
+    void set(long id, long quantity, long timestamp) {
+        this.id = id;
+        this.quantity = quantity;
+        this.timestamp = timestamp;
+    }
+
+    void clear() {
+        level = null;
+        prev = null;
+        next = null;
+    }
+}
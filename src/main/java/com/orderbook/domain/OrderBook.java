@@ -1,18 +1,63 @@
 package com.orderbook.domain;
 
 import com.orderbook.QuoteGenerator;
+import com.orderbook.metrics.InstrumentMetrics;
+import com.orderbook.metrics.LatencyHistogram;
+import com.orderbook.metrics.MetricsSnapshot;
 
-import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.HashMap;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
-public class OrderBook implements Runnable{
+public class OrderBook implements Runnable, AutoCloseable {
     private static final String NO_DATA_STRING = "Market Data doesn't exist for this instrument";
-    private final Map<String, MarketData> instrumentMarketData = new HashMap<>();
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int PACING_BATCH = 64;
+    private final InstrumentRegistry registry;
+    private final int writerQueueCapacity;
+    private final LongAdder parseErrors = new LongAdder();
+    private final LongAdder rejectedQuotes = new LongAdder();
+    private final LatencyHistogram parseLatency = new LatencyHistogram();
+    private final LatencyHistogram insertLatency = new LatencyHistogram();
+    private final LatencyHistogram queryLatency = new LatencyHistogram();
+    private volatile ShardedWriter writer;
+    private volatile JournalStore journal;
+    private volatile ExecutorService notifier;
+    private final AtomicLong nextOrderId = new AtomicLong();
+    private volatile boolean metricsEnabled;
+    private volatile TradeListener tradeListener;
+    private volatile boolean closed;
+
+    public OrderBook() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public OrderBook(int writerThreads) {
+        this(writerThreads, ShardedWriter.DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public OrderBook(int writerThreads, int writerQueueCapacity) {
+        this.registry = new InstrumentRegistry(writerThreads);
+        this.writerQueueCapacity = writerQueueCapacity;
+    }
 
     @Override
     public void run() {
@@ -21,42 +66,407 @@ public class OrderBook implements Runnable{
     }
 
     public String allAsksAndBids(String instrument) {
-        if (isNotExistingInstrument(instrument)) return NO_DATA_STRING;
-        MarketData marketData = instrumentMarketData.get(instrument);
-        return formatBidsAndAsks(marketData.getBids(), marketData.getAsks());
+        long start = startTimer();
+        MarketData marketData = marketData(instrument);
+        if (marketData == null) return NO_DATA_STRING;
+        BookSnapshot snapshot = marketData.snapshot();
+        return recordQuery(start, formatBidsAndAsks(snapshot.getBids(), snapshot.getAsks()));
     }
 
     public String topLevel(String instrument) {
-        if (isNotExistingInstrument(instrument)) return NO_DATA_STRING;
-        MarketData marketData = instrumentMarketData.get(instrument);
-        return formatBidsAndAsks(List.of(marketData.getTopBid()), List.of(marketData.getTopAsk()));
+        long start = startTimer();
+        MarketData marketData = marketData(instrument);
+        if (marketData == null) return NO_DATA_STRING;
+        BookSnapshot snapshot = marketData.snapshot(1);
+        return recordQuery(start, formatBidsAndAsks(snapshot.getBids(), snapshot.getAsks()));
     }
 
     public String averagePrice(String instrument, int levels) {
-        if (isNotExistingInstrument(instrument)) return NO_DATA_STRING;
-        MarketData marketData = instrumentMarketData.get(instrument);
-        return marketData.averagePriceOverNLevels(levels).toString();
+        long start = startTimer();
+        MarketData marketData = marketData(instrument);
+        if (marketData == null) return NO_DATA_STRING;
+        return recordQuery(start, marketData.averagePriceOverNLevels(levels).toString());
     }
 
     public String totalQuantity(String instrument, int levels) {
-        if (isNotExistingInstrument(instrument)) return NO_DATA_STRING;
-        MarketData marketData = instrumentMarketData.get(instrument);
-        return marketData.totalQuantityOverNLevels(levels).toString();
+        long start = startTimer();
+        MarketData marketData = marketData(instrument);
+        if (marketData == null) return NO_DATA_STRING;
+        return recordQuery(start, marketData.totalQuantityOverNLevels(levels).toString());
     }
 
     public String volumeWeightedAveragePrice(String instrument, int levels) {
-        if (isNotExistingInstrument(instrument)) return NO_DATA_STRING;
-        MarketData marketData = instrumentMarketData.get(instrument);
-        return marketData.volumeWeightedPriceOverNLevels(levels).toString();
+        long start = startTimer();
+        MarketData marketData = marketData(instrument);
+        if (marketData == null) return NO_DATA_STRING;
+        return recordQuery(start, marketData.volumeWeightedPriceOverNLevels(levels).toString());
+    }
+
+    public void allAsksAndBids(String instrument, QueryEncoder encoder, ByteBuffer out) {
+        allAsksAndBids(registry.getSymbols().find(instrument), encoder, out);
+    }
+
+    public void allAsksAndBids(int instrumentId, QueryEncoder encoder, ByteBuffer out) {
+        long start = startTimer();
+        MarketData marketData = marketData(instrumentId);
+        if (marketData == null) encoder.encodeNoData(out);
+        else encoder.encodeLevels(marketData, Integer.MAX_VALUE, out);
+        recordQuery(start);
+    }
+
+    public void topLevel(String instrument, QueryEncoder encoder, ByteBuffer out) {
+        topLevel(registry.getSymbols().find(instrument), encoder, out);
+    }
+
+    public void topLevel(int instrumentId, QueryEncoder encoder, ByteBuffer out) {
+        long start = startTimer();
+        MarketData marketData = marketData(instrumentId);
+        if (marketData == null) encoder.encodeNoData(out);
+        else encoder.encodeLevels(marketData, 1, out);
+        recordQuery(start);
+    }
+
+    public void averagePrice(String instrument, int levels, QueryEncoder encoder, ByteBuffer out) {
+        averagePrice(registry.getSymbols().find(instrument), levels, encoder, out);
+    }
+
+    public void averagePrice(int instrumentId, int levels, QueryEncoder encoder, ByteBuffer out) {
+        long start = startTimer();
+        MarketData marketData = marketData(instrumentId);
+        if (marketData == null) encoder.encodeNoData(out);
+        else encoder.encodeAveragePrice(marketData, levels, out);
+        recordQuery(start);
+    }
+
+    public void totalQuantity(String instrument, int levels, QueryEncoder encoder, ByteBuffer out) {
+        totalQuantity(registry.getSymbols().find(instrument), levels, encoder, out);
+    }
+
+    public void totalQuantity(int instrumentId, int levels, QueryEncoder encoder, ByteBuffer out) {
+        long start = startTimer();
+        MarketData marketData = marketData(instrumentId);
+        if (marketData == null) encoder.encodeNoData(out);
+        else encoder.encodeTotalQuantity(marketData, levels, out);
+        recordQuery(start);
+    }
+
+    public void volumeWeightedAveragePrice(String instrument, int levels, QueryEncoder encoder, ByteBuffer out) {
+        volumeWeightedAveragePrice(registry.getSymbols().find(instrument), levels, encoder, out);
+    }
+
+    public void volumeWeightedAveragePrice(int instrumentId, int levels, QueryEncoder encoder, ByteBuffer out) {
+        long start = startTimer();
+        MarketData marketData = marketData(instrumentId);
+        if (marketData == null) encoder.encodeNoData(out);
+        else encoder.encodeVolumeWeightedPrice(marketData, levels, out);
+        recordQuery(start);
+    }
+
+    public WindowStats windowStats(String instrument, StatsWindow window) {
+        return windowStats(instrument, window, System.currentTimeMillis());
+    }
+
+    /** Stats for the window ending at {@code asOfMillis}; buckets older than the window are left out. */
+    public WindowStats windowStats(String instrument, StatsWindow window, long asOfMillis) {
+        long start = startTimer();
+        MarketData marketData = marketData(instrument);
+        WindowStats stats = marketData == null ? null : marketData.windowStats(window, asOfMillis);
+        recordQuery(start);
+        return stats;
+    }
+
+    public DepthReport depthReport(int levels) {
+        return buildDepthReport(registry.getInstruments(), levels);
+    }
+
+    public DepthReport depthReport(Collection<String> instruments, int levels) {
+        List<Instrument> basket = new ArrayList<>(instruments.size());
+        for (String name : instruments) {
+            Instrument instrument = registry.get(name);
+            if (instrument != null) basket.add(instrument);
+        }
+        return buildDepthReport(basket, levels);
     }
 
     public void insertQuote(String quoteStr) {
+        long start = startTimer();
+        Quote quote;
         try {
-            Quote quote = Quote.fromString(quoteStr);
-            MarketData marketData = instrumentMarketData.computeIfAbsent(quote.getInstrument(), (k) -> new MarketData());
-            marketData.insertQuote(quote);
+            byte[] bytes = quoteStr.getBytes(StandardCharsets.UTF_8);
+            quote = new QuoteParser(registry.getSymbols()).parse(bytes, 0, bytes.length, new Quote());
         } catch (IllegalArgumentException ex) {
-            System.out.println("Quote cannot be parsed: " + quoteStr);
+            reportParseError(quoteStr);
+            return;
+        }
+        recordParse(start);
+        insertQuote(quote);
+    }
+
+    /** Parses a line for a caller that applies quotes itself, recording parse latency and errors like loads do. */
+    public boolean parseQuote(QuoteParser parser, byte[] buffer, int from, int to, Quote quote) {
+        long start = startTimer();
+        if (!parse(parser, buffer, from, to, quote)) return false;
+        recordParse(start);
+        return true;
+    }
+
+    /** This book's instrument ids; parsers and batches built on it hand quotes over without a name lookup. */
+    public SymbolTable getSymbols() {
+        return registry.getSymbols();
+    }
+
+    public void setLadderType(String instrument, LadderType ladderType) {
+        registry.setLadderType(instrument, ladderType);
+    }
+
+    /**
+     * Applies a quote to its instrument's book. A quote with a negative quantity or priced outside the instrument's
+     * ladder range is counted as rejected and not applied; returns whether the quote was applied.
+     */
+    public boolean insertQuote(Quote quote) {
+        Instrument instrument = registry.getOrRegister(quote);
+        if (!accepts(instrument, quote)) return false;
+        TradeListener listener = tradeListener;
+        if (listener != null) {
+            match(instrument, quote, listener);
+            return true;
+        }
+        JournalStore current = journal;
+        if (metricsEnabled) {
+            long start = System.nanoTime();
+            instrument.getMarketData().insertQuote(quote, current, instrument);
+            insertLatency.record(System.nanoTime() - start);
+            instrument.recordInsert();
+        } else {
+            instrument.getMarketData().insertQuote(quote, current, instrument);
+        }
+        if (current != null) current.awaitBacklog();
+        return true;
+    }
+
+    public void insertQuotes(Collection<Quote> quotes) {
+        if (tradeListener != null) {
+            quotes.forEach(this::insertQuote);
+            return;
+        }
+        QuoteBatch batch = new QuoteBatch(registry.getSymbols());
+        for (Quote quote : quotes) {
+            if (accepts(registry.getOrRegister(quote), quote)) batch.add(quote);
+        }
+        apply(batch);
+    }
+
+    public ReplayResult insertQuotes(byte[] packet, int from, int to) {
+        long startNanos = System.nanoTime();
+        QuoteParser parser = new QuoteParser(registry.getSymbols());
+        Quote quote = new Quote();
+        QuoteBatch batch = new QuoteBatch(registry.getSymbols());
+        long lines = 0;
+        long malformedLines = 0;
+        long rejected = 0;
+        int lineStart = from;
+        for (int i = from; i <= to; i++) {
+            if (i < to && packet[i] != '\n') continue;
+            if (i > lineStart) {
+                lines++;
+                if (!parse(parser, packet, lineStart, i, quote)) {
+                    malformedLines++;
+                } else if (accepts(registry.getOrRegister(quote), quote)) {
+                    batch.add(quote);
+                } else {
+                    rejected++;
+                }
+            }
+            lineStart = i + 1;
+        }
+        apply(batch);
+        return new ReplayResult(lines, malformedLines, rejected, System.nanoTime() - startNanos);
+    }
+
+    public void apply(QuoteBatch batch) {
+        if (tradeListener != null) throw new IllegalStateException("Quote batches cannot be matched");
+        for (LevelBatch levels : batch.getInstrumentBatches()) {
+            if (!instrument(batch, levels).getMarketData().accepts(levels)) {
+                throw new IllegalArgumentException("Quote batch has prices outside the ladder range of "
+                        + levels.getInstrument());
+            }
+        }
+        JournalStore currentJournal = journal;
+        for (LevelBatch levels : batch.getInstrumentBatches()) {
+            Instrument instrument = instrument(batch, levels);
+            if (metricsEnabled) {
+                long start = System.nanoTime();
+                instrument.getMarketData().applyBatch(levels, currentJournal, instrument);
+                insertLatency.record(System.nanoTime() - start);
+                instrument.recordInserts(levels.getQuoteCount());
+            } else {
+                instrument.getMarketData().applyBatch(levels, currentJournal, instrument);
+            }
+        }
+        if (currentJournal != null) currentJournal.awaitBacklog();
+    }
+
+    public synchronized ReplayResult openJournal(Path directory, Duration checkpointInterval) throws IOException {
+        checkOpen();
+        if (journal != null) throw new IllegalStateException("Journal is already open");
+        long startNanos = System.nanoTime();
+        JournalStore store = new JournalStore(directory, registry);
+        long records = store.recover();
+        store.start(checkpointInterval);
+        journal = store;
+        return new ReplayResult(records, 0, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Order-by-order view of an instrument. Its level totals feed the same book the quote-level queries read,
+     * so an instrument should be driven either by orders or by level quotes, not both.
+     */
+    public L3Book l3Book(String instrument) {
+        return registry.getOrRegister(instrument).getL3Book();
+    }
+
+    public BookSubscription subscribe(String instrument, int depth, BookListener listener) {
+        return registry.getOrRegister(instrument).getMarketData().subscribe(depth, listener, notifier());
+    }
+
+    public BookSubscription subscribeTopOfBook(String instrument, BookListener listener) {
+        return subscribe(instrument, 1, listener);
+    }
+
+    public void checkpoint() throws IOException {
+        journalStore().checkpoint();
+    }
+
+    public synchronized void closeJournal() throws IOException {
+        flush();
+        journalStore().close();
+        journal = null;
+    }
+
+    /**
+     * Applies every submitted quote, then stops the writer threads, closes the journal and stops notifying
+     * subscribers. Quotes can still be inserted directly afterwards, but not submitted or journaled.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        ShardedWriter currentWriter = writer;
+        if (currentWriter != null) currentWriter.close();
+        try {
+            if (journal != null) closeJournal();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            ExecutorService currentNotifier = notifier;
+            if (currentNotifier != null) currentNotifier.shutdown();
+        }
+    }
+
+    /**
+     * Switches quote insertion to matching: a quote becomes a limit order on the instrument's L3 book that
+     * fills against crossing resting orders in price-time priority, and only its remainder rests. A quote
+     * with zero quantity cancels the orders resting at its price. Enable it before any quotes are inserted;
+     * quotes are not journaled in this mode.
+     */
+    public void enableMatching(TradeListener listener) {
+        if (listener == null) throw new IllegalArgumentException("Trade listener is required");
+        tradeListener = listener;
+    }
+
+    public void enableMetrics() {
+        metricsEnabled = true;
+    }
+
+    public MetricsSnapshot metrics() {
+        List<InstrumentMetrics> instruments = new ArrayList<>();
+        for (Instrument instrument : registry.getInstruments()) {
+            MarketData marketData = instrument.getMarketData();
+            instruments.add(new InstrumentMetrics(instrument.getName(), instrument.getInserts(),
+                    marketData.getBidDepth(), marketData.getAskDepth()));
+        }
+        instruments.sort(Comparator.comparing(InstrumentMetrics::getInstrument));
+        ShardedWriter currentWriter = writer;
+        long rejected = rejectedQuotes.sum() + (currentWriter == null ? 0 : currentWriter.getFailedQuotes());
+        return new MetricsSnapshot(parseErrors.sum(), rejected, instruments, parseLatency.snapshot(),
+                insertLatency.snapshot(), queryLatency.snapshot());
+    }
+
+    public void submitQuote(Quote quote) {
+        try {
+            writer().submit(quote.copy());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Queues a quote without blocking; returns false when its writer's queue is full. */
+    public boolean trySubmitQuote(Quote quote) {
+        return writer().trySubmit(quote.copy());
+    }
+
+    public void flush() {
+        ShardedWriter current = writer;
+        if (current != null) current.flush();
+    }
+
+    public ReplayResult replay(Path file) throws IOException {
+        return new ReplayLoader(this).replay(file);
+    }
+
+    public ReplayResult replayCapture(Path file) throws IOException {
+        return new CaptureReader(this).replay(file);
+    }
+
+    public ReplayResult generateLoad(QuoteGenerator generator, long quotes) {
+        long quotesPerSecond = generator.getProfile().getQuotesPerSecond();
+        QuoteParser parser = new QuoteParser(registry.getSymbols());
+        Quote quote = new Quote();
+        byte[] buffer = new byte[generator.getMaxQuoteLength()];
+        long malformedLines = 0;
+        long startNanos = System.nanoTime();
+        for (long i = 0; i < quotes; i++) {
+            if ((i & (PACING_BATCH - 1)) == 0) {
+                pace(startNanos + (long) (i * 1_000_000_000.0 / quotesPerSecond));
+            }
+            int length = generator.writeNextQuote(buffer, 0);
+            try {
+                submitQuote(parser.parse(buffer, 0, length, quote));
+            } catch (IllegalArgumentException ex) {
+                malformedLines++;
+            }
+        }
+        flush();
+        return new ReplayResult(quotes, malformedLines, System.nanoTime() - startNanos);
+    }
+
+    public void readQuotes(InputStream inputStream) throws IOException {
+        readQuotes(inputStream, this::insertQuote);
+    }
+
+    private void readQuotes(InputStream inputStream, Consumer<Quote> sink) throws IOException {
+        QuoteParser parser = new QuoteParser(registry.getSymbols());
+        Quote quote = new Quote();
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        int length = 0;
+        int read;
+        while ((read = inputStream.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            int lineStart = 0;
+            for (int i = 0; i < length; i++) {
+                if (buffer[i] == '\n') {
+                    insertQuote(parser, buffer, lineStart, i, quote, sink);
+                    lineStart = i + 1;
+                }
+            }
+            length -= lineStart;
+            System.arraycopy(buffer, lineStart, buffer, 0, length);
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        if (length > 0) {
+            insertQuote(parser, buffer, 0, length, quote, sink);
         }
     }
 
@@ -79,8 +489,154 @@ public class OrderBook implements Runnable{
         return sb.toString();
     }
 
-    private boolean isNotExistingInstrument(String instrument) {
-        return !instrumentMarketData.containsKey(instrument);
+    private void insertQuote(QuoteParser parser, byte[] buffer, int from, int to, Quote quote, Consumer<Quote> sink) {
+        if (parseQuote(parser, buffer, from, to, quote)) sink.accept(quote);
+    }
+
+    private boolean parse(QuoteParser parser, byte[] buffer, int from, int to, Quote quote) {
+        try {
+            parser.parse(buffer, from, to, quote);
+            return true;
+        } catch (IllegalArgumentException ex) {
+            reportParseError(new String(buffer, from, to - from, StandardCharsets.UTF_8));
+            return false;
+        }
+    }
+
+    private void reportParseError(String quoteStr) {
+        parseErrors.increment();
+        if (!metricsEnabled) {
+            System.out.println("Quote cannot be parsed: " + quoteStr);
+        }
+    }
+
+    private boolean accepts(Instrument instrument, Quote quote) {
+        if (quote.getScaledQuantity() < 0) {
+            return reject("Quote quantity is negative: " + instrument.getName() + " " + quote.getQuantity());
+        }
+        if (instrument.getMarketData().acceptsPrice(quote.getScaledPrice())) return true;
+        return reject("Quote price is outside the ladder range: " + instrument.getName() + " " + quote.getPrice());
+    }
+
+    private boolean reject(String message) {
+        rejectedQuotes.increment();
+        if (!metricsEnabled) System.out.println(message);
+        return false;
+    }
+
+    private long startTimer() {
+        return metricsEnabled ? System.nanoTime() : 0;
+    }
+
+    private void recordParse(long start) {
+        if (start != 0) parseLatency.record(System.nanoTime() - start);
+    }
+
+    private String recordQuery(long start, String result) {
+        recordQuery(start);
+        return result;
+    }
+
+    private void match(Instrument instrument, Quote quote, TradeListener listener) {
+        L3Book book = instrument.getL3Book();
+        long quantity = quote.getScaledQuantity();
+        if (quantity == 0) {
+            book.cancelLevel(quote.getSide(), quote.getScaledPrice(), quote.getTimestamp());
+        } else {
+            book.submitOrder(nextOrderId.incrementAndGet(), quote.getSide(), quote.getScaledPrice(), quantity,
+                    quote.getTimestamp(), listener);
+        }
+    }
+
+    private void recordQuery(long start) {
+        if (start != 0) queryLatency.record(System.nanoTime() - start);
+    }
+
+    Collection<Instrument> instruments() {
+        return registry.getInstruments();
+    }
+
+    MarketData marketData(String instrument) {
+        Instrument entry = registry.get(instrument);
+        return entry == null ? null : entry.getMarketData();
+    }
+
+    private Instrument instrument(QuoteBatch batch, LevelBatch levels) {
+        return batch.getSymbols() == registry.getSymbols() ? registry.getOrRegister(levels.getInstrumentId())
+                : registry.getOrRegister(levels.getInstrument());
+    }
+
+    private MarketData marketData(int instrumentId) {
+        Instrument entry = instrumentId < 0 ? null : registry.get(instrumentId);
+        return entry == null ? null : entry.getMarketData();
+    }
+
+    private DepthReport buildDepthReport(Collection<Instrument> instruments, int levels) {
+        long start = startTimer();
+        Instrument[] basket = instruments.toArray(new Instrument[0]);
+        String[] names = new String[basket.length];
+        for (int i = 0; i < basket.length; i++) {
+            names[i] = basket[i].getName();
+        }
+        DepthReport report = new DepthReport(levels, names);
+        ForkJoinPool.commonPool().invoke(new DepthReportTask(basket, report, 0, basket.length));
+        recordQuery(start);
+        return report;
+    }
+
+    private JournalStore journalStore() {
+        JournalStore current = journal;
+        if (current == null) throw new IllegalStateException("Journal is not open");
+        return current;
+    }
+
+    private ExecutorService notifier() {
+        checkOpen();
+        ExecutorService current = notifier;
+        if (current == null) {
+            synchronized (this) {
+                current = notifier;
+                if (current == null) {
+                    current = Executors.newCachedThreadPool(runnable -> {
+                        Thread thread = new Thread(runnable, "book-listener");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    notifier = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private ShardedWriter writer() {
+        checkOpen();
+        ShardedWriter current = writer;
+        if (current == null) {
+            synchronized (this) {
+                current = writer;
+                if (current == null) {
+                    current = new ShardedWriter(registry, this::insertQuote, writerQueueCapacity);
+                    writer = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private void checkOpen() {
+        if (closed) throw new IllegalStateException("Order book is closed");
+    }
+
+    private static void pace(long dueNanos) {
+        long remaining;
+        while ((remaining = dueNanos - System.nanoTime()) > 0) {
+            if (remaining > 100_000) {
+                LockSupport.parkNanos(remaining - 50_000);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
     }
 
     private void generateRandomOrders() {
@@ -96,17 +652,42 @@ public class OrderBook implements Runnable{
 
     private void readFromFile() {
         try {
-            InputStream inputStream = getClass().getClassLoader().getResourceAsStream("exchange.txt");
-            try (BufferedReader br
-                         = new BufferedReader(new InputStreamReader(inputStream))) {
-                String line;
-                while ((line = br.readLine()) != null) {
-                    insertQuote(line);
-                }
+            try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("exchange.txt")) {
+                readQuotes(inputStream, this::submitQuote);
             }
-            inputStream.close();
         } catch (Exception ex) {
             System.out.println(ex.getMessage());
         }
     }
+
+    private static class DepthReportTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private static final int INSTRUMENTS_PER_TASK = 64;
+        private final Instrument[] instruments;
+        private final DepthReport report;
+        private final int from;
+        private final int to;
+
+        private DepthReportTask(Instrument[] instruments, DepthReport report, int from, int to) {
+            this.instruments = instruments;
+            this.report = report;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= INSTRUMENTS_PER_TASK) {
+                LevelTotals totals = new LevelTotals();
+                for (int i = from; i < to; i++) {
+                    instruments[i].getMarketData().depthTotals(report.getLevels(), totals);
+                    report.set(i, totals.getCount(), totals.getPrice(), totals.getQuantity(), totals.getNotional());
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new DepthReportTask(instruments, report, from, mid),
+                    new DepthReportTask(instruments, report, mid, to));
+        }
+    }
 }
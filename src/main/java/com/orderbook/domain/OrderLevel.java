@@ -0,0 +1,46 @@
+package com.orderbook.domain;
+
+/** Orders resting at one price, in arrival order, linked through the orders themselves. */
+class OrderLevel {
+    Side side;
+    long price;
+    long totalQuantity;
+    int orderCount;
+    Order head;
+    Order tail;
+    OrderLevel nextFree;
+
+    void set(Side side, long price) {
+        this.side = side;
+        this.price = price;
+        this.totalQuantity = 0;
+        this.orderCount = 0;
+        this.head = null;
+        this.tail = null;
+    }
+
+    void append(Order order) {
+        order.level = this;
+        order.prev = tail;
+        order.next = null;
+        if (tail == null) head = order;
+        else tail.next = order;
+        tail = order;
+        totalQuantity += order.quantity;
+        orderCount++;
+    }
+
+    void unlink(Order order) {
+        if (order.prev == null) head = order.next;
+        else order.prev.next = order.next;
+        if (order.next == null) tail = order.prev;
+        else order.next.prev = order.prev;
+        totalQuantity -= order.quantity;
+        orderCount--;
+        order.clear();
+    }
+
+    boolean isEmpty() {
+        return orderCount == 0;
+    }
+}
@@ -0,0 +1,11 @@
+package com.orderbook.domain;
+
+interface PriceLadder {
+    boolean add(long price, long quantity);
+
+    boolean remove(long price);
+
+    int size();
+
+    void forEach(LevelVisitor visitor);
+}
@@ -0,0 +1,169 @@
+package com.orderbook.domain;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public final class QueryEncoder {
+    private static final int RESULT_SCALE = 8;
+    private static final int DIVISION_DIGITS = RESULT_SCALE - FixedPoint.SCALE;
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000,
+            100_000_000};
+    private static final byte[] NO_DATA = "Market Data doesn't exist for this instrument".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EMPTY_BID = "          ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ZERO = {'0'};
+
+    private final QueryFormat format;
+    private final LevelArrays bids = new LevelArrays();
+    private final LevelArrays asks = new LevelArrays();
+    private final LevelTotals totals = new LevelTotals();
+    private final byte[] digits = new byte[20];
+
+    public QueryEncoder(QueryFormat format) {
+        this.format = format;
+    }
+
+    public QueryFormat getFormat() {
+        return format;
+    }
+
+    void encodeNoData(ByteBuffer out) {
+        switch (format) {
+            case TEXT -> out.put(NO_DATA);
+            case BINARY -> out.putInt(-1);
+        }
+    }
+
+    void encodeLevels(MarketData marketData, int depth, ByteBuffer out) {
+        marketData.readLevels(depth, bids, asks);
+        switch (format) {
+            case TEXT -> writeLevelsText(out);
+            case BINARY -> writeLevelsBinary(out);
+        }
+    }
+
+    void encodeAveragePrice(MarketData marketData, int levels, ByteBuffer out) {
+        marketData.depthTotals(levels, totals);
+        encodeRatio(totals.getPrice(), totals.getCount(), true, out);
+    }
+
+    void encodeTotalQuantity(MarketData marketData, int levels, ByteBuffer out) {
+        marketData.depthTotals(levels, totals);
+        switch (format) {
+            case TEXT -> {
+                if (totals.getCount() == 0) out.put(ZERO);
+                else writeScaled(out, totals.getQuantity(), FixedPoint.SCALE);
+            }
+            case BINARY -> out.putLong(totals.getQuantity());
+        }
+    }
+
+    void encodeVolumeWeightedPrice(MarketData marketData, int levels, ByteBuffer out) {
+        marketData.depthTotals(levels, totals);
+        NotionalSum notional = totals.getNotional();
+        if (notional.fitsInLong()) {
+            encodeRatio(notional.longValue(), totals.getQuantity(), false, out);
+        } else {
+            encodeDecimal(MarketData.volumeWeightedPrice(notional, totals.getQuantity()), out);
+        }
+    }
+
+    private void encodeRatio(long dividend, long divisor, boolean average, ByteBuffer out) {
+        if (divisor == 0) {
+            if (format == QueryFormat.TEXT) out.put(ZERO);
+            else out.putLong(0);
+            return;
+        }
+        long scaled;
+        try {
+            scaled = divideHalfUp(dividend, divisor);
+        } catch (ArithmeticException ex) {
+            encodeDecimal(average
+                    ? MarketData.averagePrice(dividend, (int) divisor)
+                    : MarketData.volumeWeightedPrice(dividend, divisor), out);
+            return;
+        }
+        switch (format) {
+            case TEXT -> writeScaled(out, scaled, RESULT_SCALE);
+            case BINARY -> out.putLong(scaled);
+        }
+    }
+
+    private void encodeDecimal(BigDecimal result, ByteBuffer out) {
+        switch (format) {
+            case TEXT -> out.put(result.toString().getBytes(StandardCharsets.US_ASCII));
+            case BINARY -> out.putLong(result.unscaledValue().longValue());
+        }
+    }
+
+    private void writeLevelsText(ByteBuffer out) {
+        int levels = Math.max(bids.size(), asks.size());
+        for (int i = 0; i < levels; i++) {
+            writeLong(out, i);
+            out.put((byte) ':').put((byte) ' ');
+            if (i < bids.size()) {
+                writeScaled(out, bids.quantity(i), FixedPoint.SCALE);
+                out.put((byte) ' ');
+                writeScaled(out, bids.price(i), FixedPoint.SCALE);
+            } else {
+                out.put(EMPTY_BID);
+            }
+            out.put((byte) ' ').put((byte) '|').put((byte) ' ');
+            if (i < asks.size()) {
+                writeScaled(out, asks.price(i), FixedPoint.SCALE);
+                out.put((byte) ' ');
+                writeScaled(out, asks.quantity(i), FixedPoint.SCALE);
+            }
+            out.put((byte) '\n');
+        }
+    }
+
+    private void writeLevelsBinary(ByteBuffer out) {
+        out.putInt(bids.size()).putInt(asks.size());
+        for (int i = 0; i < bids.size(); i++) {
+            out.putLong(bids.price(i)).putLong(bids.quantity(i));
+        }
+        for (int i = 0; i < asks.size(); i++) {
+            out.putLong(asks.price(i)).putLong(asks.quantity(i));
+        }
+    }
+
+    private void writeScaled(ByteBuffer out, long value, int scale) {
+        if (value < 0) {
+            out.put((byte) '-');
+            value = -value;
+        }
+        writeLong(out, value / POWERS_OF_TEN[scale]);
+        out.put((byte) '.');
+        long fraction = value % POWERS_OF_TEN[scale];
+        for (int i = scale - 1; i >= 0; i--) {
+            out.put((byte) ('0' + fraction / POWERS_OF_TEN[i] % 10));
+        }
+    }
+
+    private void writeLong(ByteBuffer out, long value) {
+        int length = 0;
+        do {
+            digits[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        while (length > 0) {
+            out.put(digits[--length]);
+        }
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        boolean negative = (dividend < 0) != (divisor < 0);
+        long numerator = Math.abs(dividend);
+        long denominator = Math.abs(divisor);
+        long quotient = numerator / denominator;
+        long remainder = numerator % denominator;
+        for (int i = 0; i < DIVISION_DIGITS; i++) {
+            long shifted = Math.multiplyExact(remainder, 10);
+            quotient = Math.addExact(Math.multiplyExact(quotient, 10), shifted / denominator);
+            remainder = shifted % denominator;
+        }
+        if (remainder >= denominator - remainder) quotient++;
+        return negative ? -quotient : quotient;
+    }
+}
@@ -0,0 +1,12 @@
+package com.orderbook.domain;
+
+public enum QueryFormat {
+    /** The same human-readable text the String query methods return, in US-ASCII. */
+    TEXT,
+    /**
+     * Fixed big-endian layout. Levels are written as bid count, ask count (ints) followed by
+     * (price, quantity) longs per level at scale 2. Average price and VWAP are a long at scale 8,
+     * total quantity is a long at scale 2. An unknown instrument is written as the int -1.
+     */
+    BINARY
+}
@@ -1,49 +1,56 @@
 package com.orderbook.domain;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 
 public class Quote implements Comparable<Quote> {
     private String instrument;
-    private BigDecimal price;
-    private BigDecimal quantity;
+    private SymbolTable symbols;
+    private int instrumentId = -1;
+    private long timestamp;
+    private long price;
+    private long quantity;
     private Side side;
 
     public static Quote fromString(String str) throws IllegalArgumentException {
-        String[] splitStr = str.split("\\|");
-        if (splitStr.length != 5) {
-            throw new IllegalArgumentException("Quote is not of the correct format");
-        }
-        Quote quote = new Quote();
-        try {
-            quote.instrument = splitStr[1].substring(2);
-            quote.price = new BigDecimal(splitStr[2].substring(2)).setScale(2, RoundingMode.HALF_UP);
-            quote.quantity = new BigDecimal(splitStr[3].substring(2)).setScale(2, RoundingMode.HALF_UP);
-            char side = splitStr[4].substring(2).charAt(0);
-            switch (side) {
-                case 'b' -> quote.side = Side.BUY;
-                case 's' -> quote.side = Side.SELL;
-                default -> throw new IllegalArgumentException("Side is not buy/sell");
-            }
-            return quote;
-        } catch(Exception ex) {
-            throw new IllegalArgumentException("Quote is not of the correct format", ex);
-        }
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        return new QuoteParser().parse(bytes, 0, bytes.length, new Quote());
     }
 
     public int compareTo(Quote other) {
-        return this.price.compareTo(other.price);
+        return Long.compare(this.price, other.price);
     }
 
     public String getInstrument() {
         return instrument;
     }
 
+    public int getInstrumentId() {
+        return instrumentId;
+    }
+
+    /** The instrument id in {@code symbols}, or -1 when the quote was not interned in that table. */
+    int instrumentId(SymbolTable symbols) {
+        return this.symbols == symbols ? instrumentId : -1;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
     public BigDecimal getPrice() {
-        return price;
+        return FixedPoint.toBigDecimal(price);
     }
 
     public BigDecimal getQuantity() {
+        return FixedPoint.toBigDecimal(quantity);
+    }
+
+    public long getScaledPrice() {
+        return price;
+    }
+
+    public long getScaledQuantity() {
         return quantity;
     }
 
@@ -51,15 +58,46 @@ public class Quote implements Comparable<Quote> {
         return side;
     }
 
+    void set(String instrument, long price, long quantity, Side side) {
+        this.instrument = instrument;
+        this.symbols = null;
+        this.instrumentId = -1;
+        this.price = price;
+        this.quantity = quantity;
+        this.side = side;
+    }
+
+    void setInstrumentId(SymbolTable symbols, int instrumentId) {
+        this.symbols = symbols;
+        this.instrumentId = instrumentId;
+    }
+
+    void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    Quote copy() {
+        Quote copy = new Quote();
+        copy.set(instrument, price, quantity, side);
+        copy.symbols = symbols;
+        copy.instrumentId = instrumentId;
+        copy.timestamp = timestamp;
+        return copy;
+    }
+
     public void addQuantity(BigDecimal quantity) {
-        this.quantity = this.quantity.add(quantity);
+        addQuantity(FixedPoint.fromBigDecimal(quantity));
+    }
+
+    public void addQuantity(long scaledQuantity) {
+        this.quantity += scaledQuantity;
     }
 
     @Override
     public String toString() {
         return switch (side) {
-          case BUY -> quantity + " " + price;
-          case SELL -> price + " " + quantity;
+          case BUY -> getQuantity() + " " + getPrice();
+          case SELL -> getPrice() + " " + getQuantity();
         };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package com.orderbook.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class QuoteBatch {
+    private final SymbolTable symbols;
+    private LevelBatch[] byInstrument = new LevelBatch[16];
+    private final List<LevelBatch> pending = new ArrayList<>();
+    private int quotes;
+
+    public QuoteBatch() {
+        this(new SymbolTable());
+    }
+
+    /** Groups quotes by their id in {@code symbols}; pass {@link OrderBook#getSymbols()} to skip name lookups. */
+    public QuoteBatch(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    public void add(Quote quote) {
+        int id = quote.instrumentId(symbols);
+        if (id < 0) id = symbols.id(quote.getInstrument());
+        if (id >= byInstrument.length) {
+            byInstrument = Arrays.copyOf(byInstrument, Math.max(id + 1, byInstrument.length * 2));
+        }
+        LevelBatch levels = byInstrument[id];
+        if (levels == null) {
+            levels = new LevelBatch(id, symbols.name(id));
+            byInstrument[id] = levels;
+        }
+        if (levels.getQuoteCount() == 0) pending.add(levels);
+        levels.add(quote);
+        quotes++;
+    }
+
+    public int size() {
+        return quotes;
+    }
+
+    public int getLevelCount() {
+        int levels = 0;
+        for (LevelBatch batch : pending) {
+            levels += batch.size();
+        }
+        return levels;
+    }
+
+    public void clear() {
+        for (LevelBatch batch : pending) {
+            batch.clear();
+        }
+        pending.clear();
+        quotes = 0;
+    }
+
+    SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    List<LevelBatch> getInstrumentBatches() {
+        return pending;
+    }
+}
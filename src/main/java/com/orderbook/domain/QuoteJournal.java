@@ -0,0 +1,138 @@
+package com.orderbook.domain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+class QuoteJournal implements Closeable {
+    private static final byte INSTRUMENT_RECORD = 1;
+    private static final byte QUOTE_RECORD = 2;
+    private static final int QUOTE_RECORD_SIZE = 1 + Integer.BYTES + 4 * Long.BYTES + 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final Set<Integer> definedInstruments = new HashSet<>();
+
+    QuoteJournal(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    void append(Instrument instrument, Quote quote, long version) throws IOException {
+        if (definedInstruments.add(instrument.getId())) {
+            byte[] name = instrument.getName().getBytes(StandardCharsets.UTF_8);
+            ensureCapacity(1 + Integer.BYTES + Short.BYTES + name.length);
+            buffer.put(INSTRUMENT_RECORD).putInt(instrument.getId()).putShort((short) name.length).put(name);
+        }
+        ensureCapacity(QUOTE_RECORD_SIZE);
+        buffer.put(QUOTE_RECORD)
+                .putInt(instrument.getId())
+                .putLong(version)
+                .putLong(quote.getTimestamp())
+                .putLong(quote.getScaledPrice())
+                .putLong(quote.getScaledQuantity())
+                .put((byte) quote.getSide().ordinal());
+    }
+
+    /** Hands buffered records to the file; they are durable only after the next {@link #force()}. */
+    void flush() throws IOException {
+        if (channel.isOpen()) writeBuffer();
+    }
+
+    /** Forces flushed records to disk. It may run while other threads append and flush. */
+    void force() throws IOException {
+        if (channel.isOpen()) channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) return;
+        flush();
+        force();
+        channel.close();
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) writeBuffer();
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    static long replay(Path file, Entry entry) throws IOException {
+        Map<Integer, String> names = new HashMap<>();
+        Quote quote = new Quote();
+        Side[] sides = Side.values();
+        long records = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    int start = buffer.position();
+                    byte type = buffer.get();
+                    if (type == INSTRUMENT_RECORD && buffer.remaining() >= Integer.BYTES + Short.BYTES) {
+                        int id = buffer.getInt();
+                        int length = buffer.getShort();
+                        if (buffer.remaining() >= length) {
+                            byte[] name = new byte[length];
+                            buffer.get(name);
+                            names.put(id, new String(name, StandardCharsets.UTF_8));
+                            continue;
+                        }
+                    } else if (type == QUOTE_RECORD && buffer.remaining() >= QUOTE_RECORD_SIZE - 1) {
+                        String instrument = names.get(buffer.getInt());
+                        long version = buffer.getLong();
+                        long timestamp = buffer.getLong();
+                        long price = buffer.getLong();
+                        long quantity = buffer.getLong();
+                        Side side = sides[buffer.get()];
+                        quote.set(instrument, price, quantity, side);
+                        quote.setTimestamp(timestamp);
+                        entry.accept(quote, version);
+                        records++;
+                        continue;
+                    } else if (type != INSTRUMENT_RECORD && type != QUOTE_RECORD) {
+                        buffer.position(start);
+                        if (isZeroTail(channel, buffer)) return records;
+                        throw new IOException("Corrupt journal record in " + file);
+                    }
+                    buffer.position(start);
+                    break;
+                }
+                buffer.compact();
+            }
+        }
+        return records;
+    }
+
+    /** A crash can leave the file extended past its last write, so zeros after the final record end the log. */
+    private static boolean isZeroTail(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (true) {
+            while (buffer.hasRemaining()) {
+                if (buffer.get() != 0) return false;
+            }
+            buffer.clear();
+            if (channel.read(buffer) <= 0) return true;
+            buffer.flip();
+        }
+    }
+
+    interface Entry {
+        void accept(Quote quote, long version);
+    }
+}
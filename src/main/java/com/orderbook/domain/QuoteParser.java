@@ -0,0 +1,113 @@
+package com.orderbook.domain;
+
+import java.nio.ByteBuffer;
+
+public class QuoteParser {
+    private static final int FIELD_COUNT = 5;
+    private static final int KEY_LENGTH = 2;
+    private static final int MAX_TIMESTAMP_DIGITS = 18;
+
+    private final int[] fieldStarts = new int[FIELD_COUNT + 1];
+    private final SymbolTable symbols;
+    private ByteBuffer wrapped;
+
+    public QuoteParser() {
+        this(new SymbolTable());
+    }
+
+    /** Interns instrument names in {@code symbols}; pass {@link OrderBook#getSymbols()} to parse for one book. */
+    public QuoteParser(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    public Quote parse(byte[] line, int from, int to, Quote quote) throws IllegalArgumentException {
+        if (wrapped == null || wrapped.array() != line) {
+            wrapped = ByteBuffer.wrap(line);
+        }
+        return parse(wrapped, from, to, quote);
+    }
+
+    public Quote parse(ByteBuffer line, int from, int to, Quote quote) throws IllegalArgumentException {
+        splitFields(line, from, trimLineEnd(line, from, to));
+        long timestamp = parseTimestamp(line);
+        long price = parseNumber(line, 2);
+        long quantity = parseNumber(line, 3);
+        Side side = parseSide(line);
+        int instrumentId = symbols.id(line, fieldStarts[1] + KEY_LENGTH, fieldEnd(1));
+        quote.set(symbols.name(instrumentId), price, quantity, side);
+        quote.setInstrumentId(symbols, instrumentId);
+        quote.setTimestamp(timestamp);
+        return quote;
+    }
+
+    private static int trimLineEnd(ByteBuffer line, int from, int to) {
+        while (to > from && (line.get(to - 1) == '\n' || line.get(to - 1) == '\r')) {
+            to--;
+        }
+        return to;
+    }
+
+    private void splitFields(ByteBuffer line, int from, int to) {
+        int fields = 0;
+        fieldStarts[fields++] = from;
+        for (int i = from; i < to; i++) {
+            if (line.get(i) == '|') {
+                if (fields == FIELD_COUNT) {
+                    throw new IllegalArgumentException("Quote is not of the correct format");
+                }
+                fieldStarts[fields++] = i + 1;
+            }
+        }
+        if (fields != FIELD_COUNT) {
+            throw new IllegalArgumentException("Quote is not of the correct format");
+        }
+        fieldStarts[FIELD_COUNT] = to + 1;
+        for (int field = 1; field < FIELD_COUNT; field++) {
+            if (fieldEnd(field) - fieldStarts[field] < KEY_LENGTH) {
+                throw new IllegalArgumentException("Quote is not of the correct format");
+            }
+        }
+    }
+
+    private int fieldEnd(int field) {
+        return fieldStarts[field + 1] - 1;
+    }
+
+    private long parseTimestamp(ByteBuffer line) {
+        int start = fieldStarts[0] + KEY_LENGTH;
+        int end = fieldEnd(0);
+        if (end - start < 1 || end - start > MAX_TIMESTAMP_DIGITS) {
+            throw new IllegalArgumentException("Quote is not of the correct format");
+        }
+        long timestamp = 0;
+        for (int i = start; i < end; i++) {
+            int digit = line.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Quote is not of the correct format");
+            }
+            timestamp = timestamp * 10 + digit;
+        }
+        return timestamp;
+    }
+
+    private long parseNumber(ByteBuffer line, int field) {
+        try {
+            return FixedPoint.parse(line, fieldStarts[field] + KEY_LENGTH, fieldEnd(field));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Quote is not of the correct format", ex);
+        }
+    }
+
+    private Side parseSide(ByteBuffer line) {
+        int sideStart = fieldStarts[4] + KEY_LENGTH;
+        if (sideStart >= fieldEnd(4)) {
+            throw new IllegalArgumentException("Quote is not of the correct format");
+        }
+        return switch (line.get(sideStart)) {
+            case 'b' -> Side.BUY;
+            case 's' -> Side.SELL;
+            default -> throw new IllegalArgumentException("Quote is not of the correct format",
+                    new IllegalArgumentException("Side is not buy/sell"));
+        };
+    }
+}
@@ -0,0 +1,106 @@
+package com.orderbook.domain;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Replays a capture partitioned by instrument across workers and once on a single thread, then checks that every
+ * instrument ended with the same levels and the same number of applied quotes. The partitioned run goes first,
+ * so it does not benefit from a JIT warmed up by the sequential run and the reported speedup errs low.
+ */
+public final class ReplayComparison {
+    private final int parallelism;
+    private final ReplayResult sequential;
+    private final ReplayResult parallel;
+    private final int instruments;
+    private final List<String> mismatches;
+
+    ReplayComparison(int parallelism, ReplayResult sequential, ReplayResult parallel, int instruments,
+                     List<String> mismatches) {
+        this.parallelism = parallelism;
+        this.sequential = sequential;
+        this.parallel = parallel;
+        this.instruments = instruments;
+        this.mismatches = mismatches;
+    }
+
+    public static ReplayComparison run(Path file, int parallelism) throws IOException {
+        OrderBook parallelBook = new OrderBook(parallelism);
+        ReplayResult parallel = new ReplayLoader(parallelBook, parallelism, 0).replay(file);
+        OrderBook sequentialBook = new OrderBook(1);
+        ReplayResult sequential = new ReplayLoader(sequentialBook, 1, 0).replay(file);
+        return compare(parallelism, sequentialBook, sequential, parallelBook, parallel);
+    }
+
+    static ReplayComparison compare(int parallelism, OrderBook sequentialBook, ReplayResult sequential,
+                                    OrderBook parallelBook, ReplayResult parallel) {
+        TreeSet<String> names = new TreeSet<>();
+        for (Instrument instrument : sequentialBook.instruments()) names.add(instrument.getName());
+        for (Instrument instrument : parallelBook.instruments()) names.add(instrument.getName());
+        List<String> mismatches = new ArrayList<>();
+        for (String name : names) {
+            MarketData expected = sequentialBook.marketData(name);
+            MarketData actual = parallelBook.marketData(name);
+            if (expected == null || actual == null) {
+                mismatches.add(name);
+                continue;
+            }
+            BookSnapshot expectedSnapshot = expected.snapshot();
+            BookSnapshot actualSnapshot = actual.snapshot();
+            if (expectedSnapshot.getVersion() != actualSnapshot.getVersion()
+                    || !expectedSnapshot.hasSameLevels(actualSnapshot)) {
+                mismatches.add(name);
+            }
+        }
+        return new ReplayComparison(parallelism, sequential, parallel, names.size(), mismatches);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public ReplayResult getSequential() {
+        return sequential;
+    }
+
+    public ReplayResult getParallel() {
+        return parallel;
+    }
+
+    public int getInstruments() {
+        return instruments;
+    }
+
+    public List<String> getMismatches() {
+        return mismatches;
+    }
+
+    public boolean isIdentical() {
+        return mismatches.isEmpty() && sequential.getLines() == parallel.getLines()
+                && sequential.getMalformedLines() == parallel.getMalformedLines()
+                && sequential.getRejectedQuotes() == parallel.getRejectedQuotes();
+    }
+
+    public double getSpeedup() {
+        if (parallel.getElapsedNanos() == 0) return 0;
+        return (double) sequential.getElapsedNanos() / parallel.getElapsedNanos();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Sequential: ").append(sequential).append('\n');
+        sb.append("Parallel (").append(parallelism).append(" workers): ").append(parallel).append('\n');
+        sb.append(String.format("Speedup: %.2fx%n", getSpeedup()));
+        if (isIdentical()) {
+            sb.append("Books identical across ").append(instruments).append(" instruments");
+        } else {
+            sb.append("Books differ: ").append(mismatches.size()).append(" of ").append(instruments)
+                    .append(" instruments ").append(mismatches);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,259 @@
+package com.orderbook.domain;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Replays a text capture in windows of up to one chunk per worker: the window's chunks are parsed in parallel into
+ * columnar buffers, then applied by instrument shard. A window maps at most {@code maxWindowSize} bytes of the file,
+ * and the parsed buffers are reused from window to window.
+ */
+public class ReplayLoader {
+    private static final long MAX_WINDOW_SIZE = 256L * 1024 * 1024;
+    private static final long MAX_CHUNK_SIZE = 64L * 1024 * 1024;
+    private static final long MIN_CHUNK_SIZE = 64L * 1024;
+    private static final int PROBE_SIZE = 4096;
+
+    private final OrderBook orderBook;
+    private final int parallelism;
+    private final long chunkSize;
+    private final long maxWindowSize;
+
+    public ReplayLoader(OrderBook orderBook) {
+        this(orderBook, Runtime.getRuntime().availableProcessors(), 0);
+    }
+
+    public ReplayLoader(OrderBook orderBook, int parallelism, long chunkSize) {
+        this(orderBook, parallelism, chunkSize, MAX_WINDOW_SIZE);
+    }
+
+    ReplayLoader(OrderBook orderBook, int parallelism, long chunkSize, long maxWindowSize) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive");
+        this.orderBook = orderBook;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.maxWindowSize = maxWindowSize;
+    }
+
+    public ReplayResult replay(Path file) throws IOException {
+        long startNanos = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] boundaries = chunkBoundaries(channel);
+            ParsedChunk[] parsedChunks = new ParsedChunk[parallelism];
+            long lines = 0;
+            long malformedLines = 0;
+            long rejectedQuotes = 0;
+            int first = 0;
+            while (first < boundaries.length - 1) {
+                int last = windowEnd(boundaries, first);
+                List<Callable<ParsedChunk>> parseTasks = new ArrayList<>();
+                for (int chunk = first; chunk < last; chunk++) {
+                    long start = boundaries[chunk];
+                    long end = boundaries[chunk + 1];
+                    ParsedChunk parsedChunk = reset(parsedChunks, chunk - first, end - start);
+                    parseTasks.add(() -> parse(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start),
+                            parsedChunk));
+                }
+                List<ParsedChunk> window = getAll(executor.invokeAll(parseTasks));
+                List<Callable<Long>> applyTasks = new ArrayList<>();
+                for (int shard = 0; shard < parallelism; shard++) {
+                    int applyShard = shard;
+                    applyTasks.add(() -> apply(window, applyShard));
+                }
+                for (long rejected : getAll(executor.invokeAll(applyTasks))) {
+                    rejectedQuotes += rejected;
+                }
+                for (ParsedChunk parsedChunk : window) {
+                    lines += parsedChunk.lines;
+                    malformedLines += parsedChunk.malformedLines;
+                }
+                first = last;
+            }
+            return new ReplayResult(lines, malformedLines, rejectedQuotes, System.nanoTime() - startNanos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Replay interrupted", ex);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long[] chunkBoundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long maxChunkSize = Math.min(MAX_CHUNK_SIZE, maxWindowSize / parallelism);
+        long targetSize = chunkSize > 0
+                ? chunkSize
+                : Math.max(MIN_CHUNK_SIZE, Math.min(maxChunkSize, size / parallelism + 1));
+        long[] boundaries = new long[16];
+        int count = 1;
+        long position = 0;
+        while (position < size) {
+            long end = Math.min(position + targetSize, size);
+            if (end < size) end = nextLineStart(channel, end, size);
+            if (count == boundaries.length) boundaries = Arrays.copyOf(boundaries, count * 2);
+            boundaries[count++] = end;
+            position = end;
+        }
+        return Arrays.copyOf(boundaries, count);
+    }
+
+    /** Takes chunks from {@code first} while there are workers for them and they fit in the window size. */
+    private int windowEnd(long[] boundaries, int first) {
+        int last = first + 1;
+        while (last < boundaries.length - 1 && last - first < parallelism
+                && boundaries[last + 1] - boundaries[first] <= maxWindowSize) {
+            last++;
+        }
+        return last;
+    }
+
+    private ParsedChunk reset(ParsedChunk[] parsedChunks, int slot, long length) {
+        ParsedChunk parsedChunk = parsedChunks[slot];
+        if (parsedChunk == null) {
+            parsedChunk = new ParsedChunk(parallelism, (int) (length / 32) + 1);
+            parsedChunks[slot] = parsedChunk;
+        } else {
+            parsedChunk.clear();
+        }
+        return parsedChunk;
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+        long position = from - 1;
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') return position + i + 1;
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private ParsedChunk parse(MappedByteBuffer buffer, ParsedChunk parsedChunk) {
+        QuoteParser parser = new QuoteParser(orderBook.getSymbols());
+        Quote quote = new Quote();
+        int limit = buffer.limit();
+        int lineStart = 0;
+        for (int i = 0; i <= limit; i++) {
+            if (i == limit || buffer.get(i) == '\n') {
+                if (!isBlank(buffer, lineStart, i)) {
+                    parsedChunk.lines++;
+                    try {
+                        parser.parse(buffer, lineStart, i, quote);
+                        parsedChunk.add(quote, quote.getInstrumentId() % parallelism);
+                    } catch (IllegalArgumentException ex) {
+                        parsedChunk.malformedLines++;
+                    }
+                }
+                lineStart = i + 1;
+            }
+        }
+        return parsedChunk;
+    }
+
+    private long apply(List<ParsedChunk> window, int shard) {
+        SymbolTable symbols = orderBook.getSymbols();
+        Quote quote = new Quote();
+        long rejected = 0;
+        for (ParsedChunk parsedChunk : window) {
+            int[] indexes = parsedChunk.shardIndexes[shard];
+            for (int i = 0; i < parsedChunk.shardSizes[shard]; i++) {
+                int index = indexes[i];
+                int instrumentId = parsedChunk.instrumentIds[index];
+                quote.set(symbols.name(instrumentId), parsedChunk.prices[index],
+                        parsedChunk.quantities[index], parsedChunk.sides[index]);
+                quote.setInstrumentId(symbols, instrumentId);
+                quote.setTimestamp(parsedChunk.timestamps[index]);
+                if (!orderBook.insertQuote(quote)) rejected++;
+            }
+        }
+        return rejected;
+    }
+
+    private static boolean isBlank(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) != '\r') return false;
+        }
+        return true;
+    }
+
+    static <T> List<T> getAll(List<Future<T>> futures) throws InterruptedException, IOException {
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof IOException ioException) throw ioException;
+                throw new IllegalStateException("Replay failed", ex.getCause());
+            }
+        }
+        return results;
+    }
+
+    private static class ParsedChunk {
+        private int[] instrumentIds;
+        private long[] timestamps;
+        private long[] prices;
+        private long[] quantities;
+        private Side[] sides;
+        private int size;
+        private final int[][] shardIndexes;
+        private final int[] shardSizes;
+        private long lines;
+        private long malformedLines;
+
+        private ParsedChunk(int shards, int capacity) {
+            instrumentIds = new int[capacity];
+            timestamps = new long[capacity];
+            prices = new long[capacity];
+            quantities = new long[capacity];
+            sides = new Side[capacity];
+            shardIndexes = new int[shards][16];
+            shardSizes = new int[shards];
+        }
+
+        private void clear() {
+            size = 0;
+            Arrays.fill(shardSizes, 0);
+            lines = 0;
+            malformedLines = 0;
+        }
+
+        private void add(Quote quote, int shard) {
+            if (size == instrumentIds.length) {
+                int capacity = size * 2;
+                instrumentIds = Arrays.copyOf(instrumentIds, capacity);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                sides = Arrays.copyOf(sides, capacity);
+            }
+            instrumentIds[size] = quote.getInstrumentId();
+            timestamps[size] = quote.getTimestamp();
+            prices[size] = quote.getScaledPrice();
+            quantities[size] = quote.getScaledQuantity();
+            sides[size] = quote.getSide();
+            if (shardSizes[shard] == shardIndexes[shard].length) {
+                shardIndexes[shard] = Arrays.copyOf(shardIndexes[shard], shardSizes[shard] * 2);
+            }
+            shardIndexes[shard][shardSizes[shard]++] = size++;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.orderbook.domain;
+
+public class ReplayResult {
+    private final long lines;
+    private final long malformedLines;
+    private final long rejectedQuotes;
+    private final long elapsedNanos;
+
+    public ReplayResult(long lines, long malformedLines, long elapsedNanos) {
+        this(lines, malformedLines, 0, elapsedNanos);
+    }
+
+    public ReplayResult(long lines, long malformedLines, long rejectedQuotes, long elapsedNanos) {
+        this.lines = lines;
+        this.malformedLines = malformedLines;
+        this.rejectedQuotes = rejectedQuotes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    /** Lines that could not be parsed. */
+    public long getMalformedLines() {
+        return malformedLines;
+    }
+
+    /** Parsed quotes the book refused to apply, such as prices outside an array ladder's range. */
+    public long getRejectedQuotes() {
+        return rejectedQuotes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getLinesPerSecond() {
+        if (elapsedNanos == 0) return 0;
+        return lines * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Replayed %d lines (%d malformed, %d rejected) in %.3f s, %.0f lines/sec",
+                lines, malformedLines, rejectedQuotes, elapsedNanos / 1_000_000_000.0, getLinesPerSecond());
+    }
+}
@@ -0,0 +1,176 @@
+package com.orderbook.domain;
+
+import java.util.Arrays;
+
+/**
+ * Fixed ring of time buckets keyed by event timestamp. Moving to a newer bucket clears at most one ring's worth of
+ * expired buckets; {@link #stats} sums only the buckets still inside the window at the query time, so a quiet
+ * instrument ages out without needing a new event. Not thread-safe.
+ */
+class RollingWindow {
+    private static final long NO_BUCKET = Long.MIN_VALUE;
+
+    private final StatsWindow window;
+    private final long bucketMillis;
+    private final int buckets;
+    private final long[] updates;
+    private final long[] cancels;
+    private final long[] amends;
+    private final long[] trades;
+    private final long[] tradedQuantities;
+    private final NotionalSum[] tradedNotionals;
+    private final long[] quantities;
+    private final NotionalSum[] notionals;
+    private final long[] spreadSamples;
+    private final long[] spreadSums;
+    private final long[] minSpreads;
+    private final long[] maxSpreads;
+
+    private long head = NO_BUCKET;
+    private long headStart = Long.MAX_VALUE;
+    private long headEnd = Long.MIN_VALUE;
+    private int headSlot;
+
+    RollingWindow(StatsWindow window) {
+        this.window = window;
+        this.bucketMillis = window.getBucketMillis();
+        this.buckets = window.getBuckets();
+        this.updates = new long[buckets];
+        this.cancels = new long[buckets];
+        this.amends = new long[buckets];
+        this.trades = new long[buckets];
+        this.tradedQuantities = new long[buckets];
+        this.tradedNotionals = notionalSums(buckets);
+        this.quantities = new long[buckets];
+        this.notionals = notionalSums(buckets);
+        this.spreadSamples = new long[buckets];
+        this.spreadSums = new long[buckets];
+        this.minSpreads = new long[buckets];
+        this.maxSpreads = new long[buckets];
+        Arrays.fill(minSpreads, Long.MAX_VALUE);
+        Arrays.fill(maxSpreads, Long.MIN_VALUE);
+    }
+
+    void recordUpdate(long timestamp, long price, long quantity) {
+        recordUpdates(timestamp, price, quantity, 1);
+    }
+
+    void recordUpdates(long timestamp, long price, long quantity, int count) {
+        int slot = slot(timestamp);
+        if (slot < 0) return;
+        updates[slot] += count;
+        quantities[slot] += quantity;
+        notionals[slot].add(price, quantity);
+    }
+
+    void recordCancels(long timestamp, int count) {
+        int slot = slot(timestamp);
+        if (slot < 0) return;
+        cancels[slot] += count;
+    }
+
+    void recordAmend(long timestamp) {
+        int slot = slot(timestamp);
+        if (slot < 0) return;
+        amends[slot]++;
+    }
+
+    void recordTrades(long timestamp, long price, long quantity, int count) {
+        int slot = slot(timestamp);
+        if (slot < 0) return;
+        trades[slot] += count;
+        tradedQuantities[slot] += quantity;
+        tradedNotionals[slot].add(price, quantity);
+    }
+
+    void recordSpread(long timestamp, long spread) {
+        int slot = slot(timestamp);
+        if (slot < 0) return;
+        spreadSamples[slot]++;
+        spreadSums[slot] += spread;
+        if (spread < minSpreads[slot]) minSpreads[slot] = spread;
+        if (spread > maxSpreads[slot]) maxSpreads[slot] = spread;
+    }
+
+    /** Aggregates the window ending with the bucket that holds {@code asOfMillis}, or the newest event if later. */
+    WindowStats stats(String instrument, long asOfMillis) {
+        long newest = Math.floorDiv(asOfMillis, bucketMillis);
+        if (head != NO_BUCKET) newest = Math.max(newest, head);
+        long totalUpdates = 0;
+        long totalCancels = 0;
+        long totalAmends = 0;
+        long totalTrades = 0;
+        long totalQuantity = 0;
+        NotionalSum totalNotional = new NotionalSum();
+        long totalTradedQuantity = 0;
+        NotionalSum totalTradedNotional = new NotionalSum();
+        long totalSpreadSamples = 0;
+        long totalSpreadSum = 0;
+        long minSpread = Long.MAX_VALUE;
+        long maxSpread = Long.MIN_VALUE;
+        for (long bucket = newest - buckets + 1; bucket <= head; bucket++) {
+            int slot = Math.floorMod(bucket, buckets);
+            totalUpdates += updates[slot];
+            totalCancels += cancels[slot];
+            totalAmends += amends[slot];
+            totalTrades += trades[slot];
+            totalQuantity += quantities[slot];
+            totalNotional.add(notionals[slot]);
+            totalTradedQuantity += tradedQuantities[slot];
+            totalTradedNotional.add(tradedNotionals[slot]);
+            if (spreadSamples[slot] == 0) continue;
+            totalSpreadSamples += spreadSamples[slot];
+            totalSpreadSum += spreadSums[slot];
+            minSpread = Math.min(minSpread, minSpreads[slot]);
+            maxSpread = Math.max(maxSpread, maxSpreads[slot]);
+        }
+        return new WindowStats(instrument, window, (newest + 1) * bucketMillis, totalUpdates, totalCancels,
+                totalAmends, totalTrades, totalQuantity, totalNotional, totalTradedQuantity, totalTradedNotional,
+                totalSpreadSamples, totalSpreadSum, minSpread, maxSpread);
+    }
+
+    private static NotionalSum[] notionalSums(int buckets) {
+        NotionalSum[] sums = new NotionalSum[buckets];
+        for (int i = 0; i < buckets; i++) {
+            sums[i] = new NotionalSum();
+        }
+        return sums;
+    }
+
+    private int slot(long timestamp) {
+        if (timestamp >= headStart && timestamp < headEnd) return headSlot;
+        long bucket = Math.floorDiv(timestamp, bucketMillis);
+        if (head == NO_BUCKET || bucket > head) {
+            advance(bucket);
+        } else if (bucket <= head - buckets) {
+            return -1;
+        }
+        return Math.floorMod(bucket, buckets);
+    }
+
+    private void advance(long bucket) {
+        long first = head == NO_BUCKET ? bucket - buckets + 1 : Math.max(head + 1, bucket - buckets + 1);
+        for (long expired = first; expired <= bucket; expired++) {
+            clear(Math.floorMod(expired, buckets));
+        }
+        head = bucket;
+        headStart = bucket * bucketMillis;
+        headEnd = headStart + bucketMillis;
+        headSlot = Math.floorMod(bucket, buckets);
+    }
+
+    private void clear(int slot) {
+        updates[slot] = 0;
+        cancels[slot] = 0;
+        amends[slot] = 0;
+        trades[slot] = 0;
+        tradedQuantities[slot] = 0;
+        tradedNotionals[slot].clear();
+        quantities[slot] = 0;
+        notionals[slot].clear();
+        spreadSamples[slot] = 0;
+        spreadSums[slot] = 0;
+        minSpreads[slot] = Long.MAX_VALUE;
+        maxSpreads[slot] = Long.MIN_VALUE;
+    }
+}
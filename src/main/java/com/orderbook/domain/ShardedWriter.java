@@ -0,0 +1,139 @@
+package com.orderbook.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Applies quotes on one writer thread per shard. A quote whose applier throws is counted as failed and skipped,
+ * so one bad quote cannot stop its shard; if a shard thread does die, submit and flush fail instead of waiting.
+ */
+public class ShardedWriter implements AutoCloseable {
+    static final int DEFAULT_QUEUE_CAPACITY = 64 * 1024;
+    private static final int MAX_BATCH = 1024;
+    private static final long SUBMIT_POLL_MILLIS = 10;
+
+    private final InstrumentRegistry registry;
+    private final Consumer<Quote> applier;
+    private final int queueCapacity;
+    private final Shard[] shards;
+    private final AtomicLong failedQuotes = new AtomicLong();
+
+    public ShardedWriter(InstrumentRegistry registry, Consumer<Quote> applier) {
+        this(registry, applier, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public ShardedWriter(InstrumentRegistry registry, Consumer<Quote> applier, int queueCapacity) {
+        if (queueCapacity <= 0) throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+        this.registry = registry;
+        this.applier = applier;
+        this.queueCapacity = queueCapacity;
+        this.shards = new Shard[registry.getWriterShards()];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i);
+            shards[i].thread.start();
+        }
+    }
+
+    public void submit(Quote quote) throws InterruptedException {
+        Shard shard = shard(quote);
+        shard.checkRunning();
+        shard.submitted.incrementAndGet();
+        try {
+            while (!shard.queue.offer(quote, SUBMIT_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                shard.checkRunning();
+            }
+        } catch (InterruptedException | RuntimeException ex) {
+            shard.submitted.decrementAndGet();
+            throw ex;
+        }
+    }
+
+    /** Queues a quote without waiting; returns false when the shard's queue is full. */
+    public boolean trySubmit(Quote quote) {
+        Shard shard = shard(quote);
+        shard.checkRunning();
+        shard.submitted.incrementAndGet();
+        if (shard.queue.offer(quote)) return true;
+        shard.submitted.decrementAndGet();
+        return false;
+    }
+
+    public void flush() {
+        for (Shard shard : shards) {
+            while (shard.applied.get() < shard.submitted.get()) {
+                shard.checkRunning();
+                LockSupport.parkNanos(10_000);
+            }
+        }
+    }
+
+    public long getFailedQuotes() {
+        return failedQuotes.get();
+    }
+
+    @Override
+    public void close() {
+        flush();
+        for (Shard shard : shards) {
+            shard.thread.interrupt();
+        }
+    }
+
+    private Shard shard(Quote quote) {
+        return shards[registry.getOrRegister(quote).getWriterShard()];
+    }
+
+    private class Shard implements Runnable {
+        private final BlockingQueue<Quote> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong applied = new AtomicLong();
+        private final Thread thread;
+        private volatile Throwable failure;
+
+        private Shard(int index) {
+            thread = new Thread(this, "orderbook-writer-" + index);
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<Quote> batch = new ArrayList<>(MAX_BATCH);
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    if (queue.drainTo(batch, MAX_BATCH) == 0) {
+                        batch.add(queue.take());
+                    }
+                    for (Quote quote : batch) {
+                        apply(quote);
+                    }
+                    applied.addAndGet(batch.size());
+                    batch.clear();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable ex) {
+                failure = ex;
+            }
+        }
+
+        private void apply(Quote quote) {
+            try {
+                applier.accept(quote);
+            } catch (RuntimeException ex) {
+                failedQuotes.incrementAndGet();
+            }
+        }
+
+        private void checkRunning() {
+            if (!thread.isAlive()) {
+                throw new IllegalStateException("Writer thread stopped: " + thread.getName(), failure);
+            }
+        }
+    }
+}
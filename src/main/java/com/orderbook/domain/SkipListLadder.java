@@ -0,0 +1,80 @@
+package com.orderbook.domain;
+
+import java.util.Collections;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Written only under the owning {@link MarketData}'s write lock. The concurrent map is kept so that optimistic
+ * readers can walk it while a writer changes it; they discard what they saw if the lock stamp fails to validate.
+ * The writer finds levels through a primitive index and recycles removed level holders, so changing the quantity
+ * of an existing level does not allocate; only a new level costs a boxed key and the map's own nodes.
+ */
+class SkipListLadder implements PriceLadder {
+    private static final int EXPECTED_LEVELS = 64;
+
+    private final ConcurrentSkipListMap<Long, Level> levels;
+    private final LongIndex<Level> index = new LongIndex<>(EXPECTED_LEVELS);
+    private Level freeLevels;
+
+    SkipListLadder(boolean higherIsBetter) {
+        this.levels = higherIsBetter
+                ? new ConcurrentSkipListMap<>(Collections.reverseOrder())
+                : new ConcurrentSkipListMap<>();
+    }
+
+    @Override
+    public boolean add(long price, long quantity) {
+        Level level = index.get(price);
+        if (level != null) {
+            level.quantity += quantity;
+            return false;
+        }
+        level = allocate(price, quantity);
+        index.put(price, level);
+        levels.put(level.key, level);
+        return true;
+    }
+
+    @Override
+    public boolean remove(long price) {
+        Level level = index.remove(price);
+        if (level == null) return false;
+        levels.remove(level.key);
+        level.next = freeLevels;
+        freeLevels = level;
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public void forEach(LevelVisitor visitor) {
+        for (Level level : levels.values()) {
+            if (!visitor.visit(level.price, level.quantity)) return;
+        }
+    }
+
+    private Level allocate(long price, long quantity) {
+        Level level = freeLevels;
+        if (level == null) {
+            level = new Level();
+        } else {
+            freeLevels = level.next;
+            level.next = null;
+        }
+        level.key = price;
+        level.price = price;
+        level.quantity = quantity;
+        return level;
+    }
+
+    private static class Level {
+        private Long key;
+        private long price;
+        private long quantity;
+        private Level next;
+    }
+}
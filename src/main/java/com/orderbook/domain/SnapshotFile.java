@@ -0,0 +1,90 @@
+package com.orderbook.domain;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+final class SnapshotFile {
+    private static final int MAGIC = 0x4F42534E;
+    private static final int LEVEL_SIZE = 2 * Long.BYTES;
+
+    private SnapshotFile() {
+    }
+
+    static void write(Path file, List<BookSnapshot> books) throws IOException {
+        int size = 2 * Integer.BYTES;
+        List<byte[]> names = new ArrayList<>(books.size());
+        for (BookSnapshot book : books) {
+            byte[] name = book.getInstrument().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            size += Short.BYTES + name.length + Long.BYTES + 2 * Integer.BYTES
+                    + (book.getBidDepth() + book.getAskDepth()) * LEVEL_SIZE;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(books.size());
+        for (int i = 0; i < books.size(); i++) {
+            BookSnapshot book = books.get(i);
+            buffer.putShort((short) names.get(i).length).put(names.get(i)).putLong(book.getVersion());
+            putLevels(buffer, book.getBids());
+            putLevels(buffer, book.getAsks());
+        }
+        buffer.flip();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static List<BookSnapshot> read(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < 2 * Integer.BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a snapshot file: " + file);
+        }
+        int count = buffer.getInt();
+        List<BookSnapshot> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[buffer.getShort()];
+            buffer.get(name);
+            long version = buffer.getLong();
+            long[][] bids = getLevels(buffer);
+            long[][] asks = getLevels(buffer);
+            books.add(new BookSnapshot(new String(name, StandardCharsets.UTF_8), version,
+                    bids[0], bids[1], asks[0], asks[1]));
+        }
+        return books;
+    }
+
+    private static void putLevels(ByteBuffer buffer, List<Quote> levels) {
+        buffer.putInt(levels.size());
+        for (Quote level : levels) {
+            buffer.putLong(level.getScaledPrice()).putLong(level.getScaledQuantity());
+        }
+    }
+
+    private static long[][] getLevels(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        long[] prices = new long[count];
+        long[] quantities = new long[count];
+        for (int i = 0; i < count; i++) {
+            prices[i] = buffer.getLong();
+            quantities[i] = buffer.getLong();
+        }
+        return new long[][] {prices, quantities};
+    }
+}
@@ -0,0 +1,27 @@
+package com.orderbook.domain;
+
+public enum StatsWindow {
+    ONE_SECOND(1_000, 10),
+    ONE_MINUTE(60_000, 60),
+    FIVE_MINUTES(300_000, 60);
+
+    private final long lengthMillis;
+    private final int buckets;
+
+    StatsWindow(long lengthMillis, int buckets) {
+        this.lengthMillis = lengthMillis;
+        this.buckets = buckets;
+    }
+
+    public long getLengthMillis() {
+        return lengthMillis;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    long getBucketMillis() {
+        return lengthMillis / buckets;
+    }
+}
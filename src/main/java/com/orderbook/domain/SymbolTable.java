@@ -0,0 +1,149 @@
+package com.orderbook.domain;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public final class SymbolTable {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private volatile Symbol[] table = new Symbol[INITIAL_CAPACITY];
+    private volatile Symbol[] byId = new Symbol[INITIAL_CAPACITY];
+    private volatile int size;
+
+    public int id(ByteBuffer bytes, int from, int to) {
+        int hash = hash(bytes, from, to);
+        Symbol symbol = find(table, bytes, from, to, hash);
+        return symbol != null ? symbol.id : register(bytes, from, to, hash);
+    }
+
+    public int id(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        return id(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    public int find(String name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= 0x80) return find(name.getBytes(StandardCharsets.UTF_8));
+            hash = 31 * hash + c;
+        }
+        hash ^= hash >>> 16;
+        Symbol[] current = table;
+        int mask = current.length - 1;
+        int slot = hash & mask;
+        Symbol symbol;
+        while ((symbol = current[slot]) != null) {
+            if (symbol.hash == hash && symbol.matches(name)) return symbol.id;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /** Looks a symbol up without registering it or copying its bytes; returns -1 when it is unknown. */
+    public int find(ByteBuffer bytes, int from, int to) {
+        Symbol symbol = find(table, bytes, from, to, hash(bytes, from, to));
+        return symbol != null ? symbol.id : -1;
+    }
+
+    private int find(byte[] bytes) {
+        return find(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    public String name(int id) {
+        return byId[id].name;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private synchronized int register(ByteBuffer bytes, int from, int to, int hash) {
+        Symbol existing = find(table, bytes, from, to, hash);
+        if (existing != null) return existing.id;
+        byte[] key = new byte[to - from];
+        bytes.get(from, key);
+        Symbol symbol = new Symbol(key, hash, size, new String(key, StandardCharsets.UTF_8));
+        Symbol[] ids = byId;
+        if (symbol.id == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[symbol.id] = symbol;
+        byId = ids;
+        Symbol[] current = table;
+        if ((size + 1) * 2 > current.length) {
+            current = rehash(current, current.length * 2);
+        }
+        insert(current, symbol);
+        table = current;
+        size = symbol.id + 1;
+        return symbol.id;
+    }
+
+    private static Symbol[] rehash(Symbol[] old, int capacity) {
+        Symbol[] rehashed = new Symbol[capacity];
+        for (Symbol symbol : old) {
+            if (symbol != null) insert(rehashed, symbol);
+        }
+        return rehashed;
+    }
+
+    private static void insert(Symbol[] table, Symbol symbol) {
+        int mask = table.length - 1;
+        int slot = symbol.hash & mask;
+        while (table[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = symbol;
+    }
+
+    private static Symbol find(Symbol[] table, ByteBuffer bytes, int from, int to, int hash) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        Symbol symbol;
+        while ((symbol = table[slot]) != null) {
+            if (symbol.hash == hash && symbol.matches(bytes, from, to)) return symbol;
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private static int hash(ByteBuffer bytes, int from, int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + bytes.get(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Symbol {
+        private final byte[] key;
+        private final int hash;
+        private final int id;
+        private final String name;
+
+        private Symbol(byte[] key, int hash, int id, String name) {
+            this.key = key;
+            this.hash = hash;
+            this.id = id;
+            this.name = name;
+        }
+
+        private boolean matches(String ascii) {
+            if (key.length != ascii.length()) return false;
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != ascii.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        private boolean matches(ByteBuffer bytes, int from, int to) {
+            if (key.length != to - from) return false;
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != bytes.get(from + i)) return false;
+            }
+            return true;
+        }
+    }
+}
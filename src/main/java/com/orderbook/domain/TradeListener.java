@@ -0,0 +1,11 @@
+package com.orderbook.domain;
+
+/**
+ * Receives fills from the matching engine on the matching thread, before the level book reflects them.
+ * Arguments are primitives so a fill does not allocate; implementations must not call back into the book.
+ */
+@FunctionalInterface
+public interface TradeListener {
+    void onTrade(String instrument, long takerOrderId, long makerOrderId, Side takerSide, long price, long quantity,
+                 long timestamp);
+}
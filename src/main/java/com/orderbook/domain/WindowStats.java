@@ -0,0 +1,124 @@
+package com.orderbook.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public final class WindowStats {
+    private final String instrument;
+    private final StatsWindow window;
+    private final long endTimestamp;
+    private final long updates;
+    private final long cancels;
+    private final long amends;
+    private final long trades;
+    private final long quantity;
+    private final NotionalSum notional;
+    private final long tradedQuantity;
+    private final NotionalSum tradedNotional;
+    private final long spreadSamples;
+    private final long spreadSum;
+    private final long minSpread;
+    private final long maxSpread;
+
+    WindowStats(String instrument, StatsWindow window, long endTimestamp, long updates, long cancels, long amends,
+                long trades, long quantity, NotionalSum notional, long tradedQuantity, NotionalSum tradedNotional,
+                long spreadSamples, long spreadSum, long minSpread, long maxSpread) {
+        this.instrument = instrument;
+        this.window = window;
+        this.endTimestamp = endTimestamp;
+        this.updates = updates;
+        this.cancels = cancels;
+        this.amends = amends;
+        this.trades = trades;
+        this.quantity = quantity;
+        this.notional = notional;
+        this.tradedQuantity = tradedQuantity;
+        this.tradedNotional = tradedNotional;
+        this.spreadSamples = spreadSamples;
+        this.spreadSum = spreadSum;
+        this.minSpread = minSpread;
+        this.maxSpread = maxSpread;
+    }
+
+    public String getInstrument() {
+        return instrument;
+    }
+
+    public StatsWindow getWindow() {
+        return window;
+    }
+
+    public long getEndTimestamp() {
+        return endTimestamp;
+    }
+
+    public long getUpdates() {
+        return updates;
+    }
+
+    public long getCancels() {
+        return cancels;
+    }
+
+    public long getAmends() {
+        return amends;
+    }
+
+    public long getTrades() {
+        return trades;
+    }
+
+    public double getUpdateRate() {
+        return updates * 1000.0 / window.getLengthMillis();
+    }
+
+    public double getCancelRate() {
+        return cancels * 1000.0 / window.getLengthMillis();
+    }
+
+    public double getAmendRate() {
+        return amends * 1000.0 / window.getLengthMillis();
+    }
+
+    public double getTradeRate() {
+        return trades * 1000.0 / window.getLengthMillis();
+    }
+
+    public BigDecimal getVolumeWeightedPrice() {
+        return MarketData.volumeWeightedPrice(notional, quantity);
+    }
+
+    public BigDecimal getTradedQuantity() {
+        return FixedPoint.toBigDecimal(tradedQuantity);
+    }
+
+    public BigDecimal getTradedVolumeWeightedPrice() {
+        return MarketData.volumeWeightedPrice(tradedNotional, tradedQuantity);
+    }
+
+    public long getSpreadSamples() {
+        return spreadSamples;
+    }
+
+    public BigDecimal getMinSpread() {
+        return spreadSamples == 0 ? BigDecimal.ZERO : FixedPoint.toBigDecimal(minSpread);
+    }
+
+    public BigDecimal getMaxSpread() {
+        return spreadSamples == 0 ? BigDecimal.ZERO : FixedPoint.toBigDecimal(maxSpread);
+    }
+
+    public BigDecimal getMeanSpread() {
+        if (spreadSamples == 0) return BigDecimal.ZERO;
+        return FixedPoint.toBigDecimal(spreadSum).divide(BigDecimal.valueOf(spreadSamples), 8, RoundingMode.HALF_UP);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s: updates=%d (%.2f/s) cancels=%d (%.2f/s) amends=%d (%.2f/s) trades=%d (%.2f/s) "
+                        + "vwap=%s traded=%s at %s spread min=%s max=%s mean=%s",
+                instrument, window, updates, getUpdateRate(), cancels, getCancelRate(), amends, getAmendRate(),
+                trades, getTradeRate(), getVolumeWeightedPrice(), getTradedQuantity(), getTradedVolumeWeightedPrice(),
+                getMinSpread(), getMaxSpread(), getMeanSpread());
+    }
+}
@@ -0,0 +1,36 @@
+package com.orderbook.metrics;
+
+public class InstrumentMetrics {
+    private final String instrument;
+    private final long inserts;
+    private final int bidDepth;
+    private final int askDepth;
+
+    public InstrumentMetrics(String instrument, long inserts, int bidDepth, int askDepth) {
+        this.instrument = instrument;
+        this.inserts = inserts;
+        this.bidDepth = bidDepth;
+        this.askDepth = askDepth;
+    }
+
+    public String getInstrument() {
+        return instrument;
+    }
+
+    public long getInserts() {
+        return inserts;
+    }
+
+    public int getBidDepth() {
+        return bidDepth;
+    }
+
+    public int getAskDepth() {
+        return askDepth;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: inserts=%d bids=%d asks=%d", instrument, inserts, bidDepth, askDepth);
+    }
+}
@@ -0,0 +1,61 @@
+package com.orderbook.metrics;
+
+import java.util.List;
+
+public class MetricsSnapshot {
+    private final long parseErrors;
+    private final long rejectedQuotes;
+    private final List<InstrumentMetrics> instruments;
+    private final HistogramSnapshot parseLatency;
+    private final HistogramSnapshot insertLatency;
+    private final HistogramSnapshot queryLatency;
+
+    public MetricsSnapshot(long parseErrors, long rejectedQuotes, List<InstrumentMetrics> instruments,
+                           HistogramSnapshot parseLatency, HistogramSnapshot insertLatency,
+                           HistogramSnapshot queryLatency) {
+        this.parseErrors = parseErrors;
+        this.rejectedQuotes = rejectedQuotes;
+        this.instruments = instruments;
+        this.parseLatency = parseLatency;
+        this.insertLatency = insertLatency;
+        this.queryLatency = queryLatency;
+    }
+
+    public long getParseErrors() {
+        return parseErrors;
+    }
+
+    public long getRejectedQuotes() {
+        return rejectedQuotes;
+    }
+
+    public List<InstrumentMetrics> getInstruments() {
+        return instruments;
+    }
+
+    public HistogramSnapshot getParseLatency() {
+        return parseLatency;
+    }
+
+    public HistogramSnapshot getInsertLatency() {
+        return insertLatency;
+    }
+
+    public HistogramSnapshot getQueryLatency() {
+        return queryLatency;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Parse errors: ").append(parseErrors).append("\n");
+        sb.append("Rejected quotes: ").append(rejectedQuotes).append("\n");
+        sb.append("Parse latency: ").append(parseLatency).append("\n");
+        sb.append("Insert latency: ").append(insertLatency).append("\n");
+        sb.append("Query latency: ").append(queryLatency).append("\n");
+        for (InstrumentMetrics instrument : instruments) {
+            sb.append(instrument).append("\n");
+        }
+        return sb.toString();
+    }
+}
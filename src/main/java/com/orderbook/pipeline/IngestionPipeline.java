@@ -0,0 +1,157 @@
+package com.orderbook.pipeline;
+
+import com.orderbook.domain.OrderBook;
+import com.orderbook.domain.Quote;
+import com.orderbook.domain.QuoteParser;
+import com.orderbook.domain.ReplayResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class IngestionPipeline {
+    private static final int DEFAULT_CAPACITY = 4096;
+    private static final int DEFAULT_BATCH_SIZE = 256;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private final OrderBook orderBook;
+    private final int capacity;
+    private final int batchSize;
+    private final WaitStrategy waitStrategy;
+
+    public IngestionPipeline(OrderBook orderBook, WaitStrategy waitStrategy) {
+        this(orderBook, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, waitStrategy);
+    }
+
+    public IngestionPipeline(OrderBook orderBook, int capacity, int batchSize, WaitStrategy waitStrategy) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.orderBook = orderBook;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.waitStrategy = waitStrategy;
+    }
+
+    public ReplayResult run(InputStream inputStream) throws IOException {
+        SpscRingBuffer<LineSlot> lines = new SpscRingBuffer<>(capacity, LineSlot::new, waitStrategy);
+        SpscRingBuffer<Quote> quotes = new SpscRingBuffer<>(capacity, Quote::new, waitStrategy);
+        AtomicLong malformedLines = new AtomicLong();
+        AtomicLong rejectedQuotes = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread parseStage = new Thread(() -> parse(lines, quotes, malformedLines, failure), "pipeline-parse");
+        Thread applyStage = new Thread(() -> apply(quotes, rejectedQuotes, failure), "pipeline-apply");
+        parseStage.start();
+        applyStage.start();
+
+        long startNanos = System.nanoTime();
+        long lineCount;
+        try {
+            lineCount = read(inputStream, lines, failure);
+        } finally {
+            lines.close();
+            join(parseStage);
+            join(applyStage);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        Throwable error = failure.get();
+        if (error != null) {
+            throw new IllegalStateException("Ingestion pipeline failed", error);
+        }
+        return new ReplayResult(lineCount, malformedLines.get(), rejectedQuotes.get(), elapsedNanos);
+    }
+
+    private long read(InputStream inputStream, SpscRingBuffer<LineSlot> lines, AtomicReference<Throwable> failure)
+            throws IOException {
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        long lineCount = 0;
+        int length = 0;
+        int read;
+        while (failure.get() == null && (read = inputStream.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            int lineStart = 0;
+            for (int i = 0; i < length; i++) {
+                if (buffer[i] == '\n') {
+                    lines.claim().set(buffer, lineStart, i);
+                    lines.publish();
+                    lineCount++;
+                    lineStart = i + 1;
+                }
+            }
+            length -= lineStart;
+            System.arraycopy(buffer, lineStart, buffer, 0, length);
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        if (length > 0) {
+            lines.claim().set(buffer, 0, length);
+            lines.publish();
+            lineCount++;
+        }
+        return lineCount;
+    }
+
+    private void parse(SpscRingBuffer<LineSlot> lines, SpscRingBuffer<Quote> quotes, AtomicLong malformedLines,
+                       AtomicReference<Throwable> failure) {
+        QuoteParser parser = new QuoteParser(orderBook.getSymbols());
+        try {
+            long next = 0;
+            long available;
+            while ((available = lines.waitFor(next)) >= 0) {
+                long end = Math.min(available, next + batchSize - 1);
+                for (long sequence = next; sequence <= end; sequence++) {
+                    LineSlot line = lines.get(sequence);
+                    if (orderBook.parseQuote(parser, line.getBytes(), 0, line.getLength(), quotes.claim())) {
+                        quotes.publish();
+                    } else {
+                        malformedLines.incrementAndGet();
+                    }
+                }
+                lines.release(end);
+                next = end + 1;
+            }
+        } catch (Throwable ex) {
+            failure.compareAndSet(null, ex);
+            drain(lines);
+        } finally {
+            quotes.close();
+        }
+    }
+
+    private void apply(SpscRingBuffer<Quote> quotes, AtomicLong rejectedQuotes, AtomicReference<Throwable> failure) {
+        try {
+            long next = 0;
+            long available;
+            while ((available = quotes.waitFor(next)) >= 0) {
+                long end = Math.min(available, next + batchSize - 1);
+                for (long sequence = next; sequence <= end; sequence++) {
+                    if (!orderBook.insertQuote(quotes.get(sequence))) rejectedQuotes.incrementAndGet();
+                }
+                quotes.release(end);
+                next = end + 1;
+            }
+        } catch (Throwable ex) {
+            failure.compareAndSet(null, ex);
+            drain(quotes);
+        }
+    }
+
+    private static void drain(SpscRingBuffer<?> ring) {
+        long next = 0;
+        long available;
+        while ((available = ring.waitFor(next)) >= 0) {
+            ring.release(available);
+            next = available + 1;
+        }
+    }
+
+    private static void join(Thread stage) {
+        try {
+            stage.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.orderbook.pipeline;
+
+import java.util.Arrays;
+
+class LineSlot {
+    private static final int INITIAL_CAPACITY = 128;
+    private byte[] bytes = new byte[INITIAL_CAPACITY];
+    private int length;
+
+    void set(byte[] source, int from, int to) {
+        length = to - from;
+        if (length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Integer.highestOneBit(length) << 1);
+        }
+        System.arraycopy(source, from, bytes, 0, length);
+    }
+
+    byte[] getBytes() {
+        return bytes;
+    }
+
+    int getLength() {
+        return length;
+    }
+}
@@ -0,0 +1,68 @@
+package com.orderbook.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+public class SpscRingBuffer<T> {
+    private final Object[] slots;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    private final AtomicLong published = new AtomicLong(-1);
+    private final AtomicLong consumed = new AtomicLong(-1);
+    private volatile boolean closed;
+
+    private long nextClaim;
+    private long cachedConsumed = -1;
+
+    public SpscRingBuffer(int capacity, Supplier<T> slotFactory, WaitStrategy waitStrategy) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+        this.slots = new Object[capacity];
+        this.mask = capacity - 1;
+        this.waitStrategy = waitStrategy;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = slotFactory.get();
+        }
+    }
+
+    public T claim() {
+        long sequence = nextClaim;
+        int idleCount = 0;
+        while (sequence - cachedConsumed > slots.length) {
+            cachedConsumed = consumed.get();
+            if (sequence - cachedConsumed > slots.length) idleCount = waitStrategy.idle(idleCount);
+        }
+        return get(sequence);
+    }
+
+    public void publish() {
+        published.lazySet(nextClaim++);
+    }
+
+    public void close() {
+        closed = true;
+    }
+
+    public long waitFor(long sequence) {
+        int idleCount = 0;
+        while (true) {
+            long available = published.get();
+            if (available >= sequence) return available;
+            if (closed) {
+                available = published.get();
+                return available >= sequence ? available : -1;
+            }
+            idleCount = waitStrategy.idle(idleCount);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(long sequence) {
+        return (T) slots[(int) sequence & mask];
+    }
+
+    public void release(long sequence) {
+        consumed.lazySet(sequence);
+    }
+}
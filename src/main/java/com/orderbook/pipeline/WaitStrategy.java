@@ -0,0 +1,29 @@
+package com.orderbook.pipeline;
+
+import java.util.concurrent.locks.LockSupport;
+
+public enum WaitStrategy {
+    BUSY_SPIN,
+    YIELD,
+    PARK;
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long PARK_NANOS = 50_000;
+
+    int idle(int idleCount) {
+        switch (this) {
+            case BUSY_SPIN -> Thread.onSpinWait();
+            case YIELD -> {
+                if (idleCount < SPIN_TRIES) Thread.onSpinWait();
+                else Thread.yield();
+            }
+            case PARK -> {
+                if (idleCount < SPIN_TRIES) Thread.onSpinWait();
+                else if (idleCount < YIELD_TRIES) Thread.yield();
+                else LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+        return idleCount + 1;
+    }
+}
@@ -0,0 +1,279 @@
+package com.orderbook.server;
+
+import com.orderbook.domain.OrderBook;
+import com.orderbook.domain.Quote;
+import com.orderbook.domain.QuoteParser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class MarketDataServer implements Closeable {
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_LINE_LENGTH = 1024 * 1024;
+    private static final int MAX_PENDING_OUTPUT = 4 * 1024 * 1024;
+    private static final long PAUSED_RETRY_MILLIS = 1;
+
+    private final OrderBook orderBook;
+    private final Selector selector;
+    private final ServerSocketChannel feedChannel;
+    private final ServerSocketChannel queryChannel;
+    private final QuoteParser parser;
+    private final Quote quote = new Quote();
+    private final QueryHandler queryHandler;
+    private final LongAdder quotes = new LongAdder();
+    private final LongAdder malformedLines = new LongAdder();
+    private final LongAdder feedPauses = new LongAdder();
+    private final ArrayDeque<SelectionKey> pausedFeeds = new ArrayDeque<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public MarketDataServer(OrderBook orderBook, InetSocketAddress feedAddress, InetSocketAddress queryAddress)
+            throws IOException {
+        this.orderBook = orderBook;
+        this.parser = new QuoteParser(orderBook.getSymbols());
+        this.queryHandler = new QueryHandler(orderBook);
+        this.selector = Selector.open();
+        this.feedChannel = open(feedAddress);
+        this.queryChannel = open(queryAddress);
+        this.thread = new Thread(this::serve, "market-data-server");
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    public int getFeedPort() {
+        return feedChannel.socket().getLocalPort();
+    }
+
+    public int getQueryPort() {
+        return queryChannel.socket().getLocalPort();
+    }
+
+    public long getQuotes() {
+        return quotes.sum();
+    }
+
+    public long getMalformedLines() {
+        return malformedLines.sum();
+    }
+
+    /** Times a feed connection stopped reading because its writer's queue was full. */
+    public long getFeedPauses() {
+        return feedPauses.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    private ServerSocketChannel open(InetSocketAddress address) throws IOException {
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        channel.configureBlocking(false);
+        channel.bind(address);
+        channel.register(selector, SelectionKey.OP_ACCEPT);
+        return channel;
+    }
+
+    private void serve() {
+        while (running) {
+            try {
+                selector.select(pausedFeeds.isEmpty() ? 0 : PAUSED_RETRY_MILLIS);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+                resumePausedFeeds();
+            } catch (IOException ex) {
+                System.out.println("Server error: " + ex.getMessage());
+            }
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        try {
+            if (!key.isValid()) return;
+            if (key.isAcceptable()) {
+                accept((ServerSocketChannel) key.channel());
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            if (key.isReadable()) read(key, connection);
+            if (key.isValid() && key.isWritable()) write(key, connection);
+        } catch (IOException | RuntimeException ex) {
+            closeQuietly(key);
+        }
+    }
+
+    private void accept(ServerSocketChannel server) throws IOException {
+        SocketChannel client;
+        while ((client = server.accept()) != null) {
+            client.configureBlocking(false);
+            client.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            client.register(selector, SelectionKey.OP_READ, new Connection(server == feedChannel));
+        }
+    }
+
+    private void read(SelectionKey key, Connection connection) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        int read = channel.read(connection.in);
+        if (connection.feed) {
+            if (read < 0) connection.endOfInput = true;
+            readQuotes(key, connection);
+            return;
+        }
+        if (read < 0) {
+            closeQuietly(key);
+            return;
+        }
+        ByteBuffer in = connection.in;
+        int lineStart = 0;
+        for (int i = 0; i < in.position(); i++) {
+            if (in.get(i) != '\n') continue;
+            queryHandler.handle(in, lineStart, i, connection);
+            lineStart = i + 1;
+        }
+        in.limit(in.position()).position(lineStart);
+        in.compact();
+        if (!in.hasRemaining()) connection.growInput();
+        if (connection.out.position() > 0) write(key, connection);
+    }
+
+    /**
+     * Submits every complete line in the connection's input. When a writer queue is full the remaining bytes stay
+     * buffered and the connection stops reading, so TCP pushes back on the feed instead of quotes being dropped.
+     */
+    private void readQuotes(SelectionKey key, Connection connection) {
+        ByteBuffer in = connection.in;
+        int lineStart = 0;
+        boolean blocked = false;
+        for (int i = 0; i < in.position(); i++) {
+            if (in.get(i) != '\n') continue;
+            if (!onQuote(in, lineStart, i)) {
+                blocked = true;
+                break;
+            }
+            lineStart = i + 1;
+        }
+        if (!blocked && connection.endOfInput) {
+            if (lineStart == in.position() || onQuote(in, lineStart, in.position())) {
+                closeQuietly(key);
+                return;
+            }
+            blocked = true;
+        }
+        in.limit(in.position()).position(lineStart);
+        in.compact();
+        if (blocked) {
+            key.interestOps(0);
+            pausedFeeds.add(key);
+            feedPauses.increment();
+        } else {
+            key.interestOps(SelectionKey.OP_READ);
+            if (!in.hasRemaining()) connection.growInput();
+        }
+    }
+
+    private void resumePausedFeeds() {
+        for (int i = pausedFeeds.size(); i > 0; i--) {
+            SelectionKey key = pausedFeeds.poll();
+            if (!key.isValid()) continue;
+            try {
+                readQuotes(key, (Connection) key.attachment());
+            } catch (RuntimeException ex) {
+                closeQuietly(key);
+            }
+        }
+    }
+
+    /** Returns false, leaving the line unconsumed, when the quote's writer has no room for it. */
+    private boolean onQuote(ByteBuffer line, int from, int to) {
+        if (to == from || (to == from + 1 && line.get(from) == '\r')) return true;
+        try {
+            if (!orderBook.trySubmitQuote(parser.parse(line, from, to, quote))) return false;
+            quotes.increment();
+        } catch (IllegalArgumentException ex) {
+            malformedLines.increment();
+        }
+        return true;
+    }
+
+    private void write(SelectionKey key, Connection connection) throws IOException {
+        ByteBuffer out = connection.out;
+        out.flip();
+        ((SocketChannel) key.channel()).write(out);
+        out.compact();
+        int pending = out.position();
+        if (pending > MAX_PENDING_OUTPUT) {
+            key.interestOps(SelectionKey.OP_WRITE);
+        } else if (pending > 0) {
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        } else {
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+            // Connection is already gone
+        }
+    }
+
+    static class Connection {
+        private final boolean feed;
+        private boolean endOfInput;
+        private ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+        private ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+
+        private Connection(boolean feed) {
+            this.feed = feed;
+        }
+
+        ByteBuffer output(int bytes) {
+            if (out.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+                out.flip();
+                grown.put(out);
+                out = grown;
+            }
+            return out;
+        }
+
+        private void growInput() {
+            if (in.capacity() >= MAX_LINE_LENGTH) {
+                throw new IllegalStateException("Line exceeds " + MAX_LINE_LENGTH + " bytes");
+            }
+            ByteBuffer grown = ByteBuffer.allocate(in.capacity() * 2);
+            in.flip();
+            grown.put(in);
+            in = grown;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.orderbook.server;
+
+import com.orderbook.domain.OrderBook;
+import com.orderbook.domain.QueryEncoder;
+import com.orderbook.domain.QueryFormat;
+import com.orderbook.domain.SymbolTable;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+class QueryHandler {
+    private static final byte[] INVALID_REQUEST = "ERR invalid request".getBytes(StandardCharsets.US_ASCII);
+    private static final int MIN_RESPONSE_CAPACITY = 4 * 1024;
+
+    private final OrderBook orderBook;
+    private final QueryEncoder encoder = new QueryEncoder(QueryFormat.TEXT);
+    private final SymbolTable symbols;
+    private final int[] tokenStarts = new int[3];
+    private final int[] tokenEnds = new int[3];
+
+    QueryHandler(OrderBook orderBook) {
+        this.orderBook = orderBook;
+        this.symbols = orderBook.getSymbols();
+    }
+
+    void handle(ByteBuffer request, int from, int to, MarketDataServer.Connection connection) {
+        int tokens = tokenize(request, from, to);
+        int capacity = MIN_RESPONSE_CAPACITY;
+        while (true) {
+            ByteBuffer out = connection.output(Integer.BYTES + capacity);
+            int lengthPosition = out.position();
+            out.putInt(0);
+            try {
+                execute(request, tokens, out);
+                out.putInt(lengthPosition, out.position() - lengthPosition - Integer.BYTES);
+                return;
+            } catch (BufferOverflowException ex) {
+                out.position(lengthPosition);
+                capacity *= 2;
+            }
+        }
+    }
+
+    private void execute(ByteBuffer request, int tokens, ByteBuffer out) {
+        if (tokens < 2 || tokens > 3) {
+            out.put(INVALID_REQUEST);
+            return;
+        }
+        int instrument = symbols.find(request, tokenStarts[1], tokenEnds[1]);
+        if (matches(request, 0, "TOP") && tokens == 2) {
+            orderBook.topLevel(instrument, encoder, out);
+        } else if (matches(request, 0, "ALL") && tokens == 2) {
+            orderBook.allAsksAndBids(instrument, encoder, out);
+        } else if (tokens == 3 && levels(request) >= 0) {
+            int levels = levels(request);
+            if (matches(request, 0, "AVG")) {
+                orderBook.averagePrice(instrument, levels, encoder, out);
+            } else if (matches(request, 0, "QTY")) {
+                orderBook.totalQuantity(instrument, levels, encoder, out);
+            } else if (matches(request, 0, "VWAP")) {
+                orderBook.volumeWeightedAveragePrice(instrument, levels, encoder, out);
+            } else {
+                out.put(INVALID_REQUEST);
+            }
+        } else {
+            out.put(INVALID_REQUEST);
+        }
+    }
+
+    private int tokenize(ByteBuffer request, int from, int to) {
+        int tokens = 0;
+        int i = from;
+        while (i < to) {
+            while (i < to && isSeparator(request.get(i))) i++;
+            if (i == to) break;
+            if (tokens == tokenStarts.length) return tokens + 1;
+            tokenStarts[tokens] = i;
+            while (i < to && !isSeparator(request.get(i))) i++;
+            tokenEnds[tokens++] = i;
+        }
+        return tokens;
+    }
+
+    private boolean matches(ByteBuffer request, int token, String keyword) {
+        if (tokenEnds[token] - tokenStarts[token] != keyword.length()) return false;
+        for (int i = 0; i < keyword.length(); i++) {
+            if (Character.toUpperCase(request.get(tokenStarts[token] + i)) != keyword.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private int levels(ByteBuffer request) {
+        int length = tokenEnds[2] - tokenStarts[2];
+        if (length == 0 || length > 9) return -1;
+        int levels = 0;
+        for (int i = tokenStarts[2]; i < tokenEnds[2]; i++) {
+            int digit = request.get(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            levels = levels * 10 + digit;
+        }
+        return levels;
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b == ' ' || b == '\r' || b == '\t';
+    }
+}
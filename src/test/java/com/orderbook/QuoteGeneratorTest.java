@@ -0,0 +1,98 @@
+package com.orderbook;
+
+import com.orderbook.domain.OrderBook;
+import com.orderbook.domain.Quote;
+import com.orderbook.domain.ReplayResult;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class QuoteGeneratorTest {
+
+    @Test
+    public void nextQuote_sameSeed_generatesSameQuotes() {
+        QuoteGenerator first = new QuoteGenerator(7);
+        QuoteGenerator second = new QuoteGenerator(7);
+        for (int i = 0; i < 100; i++) {
+            Quote firstQuote = Quote.fromString(first.nextQuote());
+            Quote secondQuote = Quote.fromString(second.nextQuote());
+            assertEquals(firstQuote.getInstrument(), secondQuote.getInstrument());
+            assertEquals(firstQuote.getScaledPrice(), secondQuote.getScaledPrice());
+        }
+    }
+
+    @Test
+    public void writeNextQuote_sameSeed_writesSameBytes() {
+        QuoteGenerator first = new QuoteGenerator(LoadProfile.defaults(11, 1_000_000));
+        QuoteGenerator second = new QuoteGenerator(LoadProfile.defaults(11, 1_000_000));
+        byte[] firstBuffer = new byte[first.getMaxQuoteLength()];
+        byte[] secondBuffer = new byte[second.getMaxQuoteLength()];
+        for (int i = 0; i < 1000; i++) {
+            int firstLength = first.writeNextQuote(firstBuffer, 0);
+            int secondLength = second.writeNextQuote(secondBuffer, 0);
+            assertEquals(firstLength, secondLength);
+            assertTrue(Arrays.equals(firstBuffer, 0, firstLength, secondBuffer, 0, secondLength));
+        }
+    }
+
+    @Test
+    public void writeNextQuote_loadProfile_writesParseableQuotesWithCancels() {
+        LoadProfile profile = new LoadProfile(3, new String[] {"AAA", "BBBBBB"}, 1_000_000, 100.00, 1, 20, 50, 0.3);
+        QuoteGenerator generator = new QuoteGenerator(profile);
+        byte[] buffer = new byte[generator.getMaxQuoteLength()];
+        int cancels = 0;
+        for (int i = 0; i < 10_000; i++) {
+            int length = generator.writeNextQuote(buffer, 0);
+            assertEquals('\n', buffer[length - 1]);
+            Quote quote = Quote.fromString(new String(buffer, 0, length, StandardCharsets.UTF_8));
+            assertTrue(quote.getInstrument().equals("AAA") || quote.getInstrument().equals("BBBBBB"));
+            assertTrue(quote.getScaledPrice() > 0);
+            if (quote.getScaledQuantity() == 0) cancels++;
+        }
+        assertTrue(cancels > 2500 && cancels < 3500);
+    }
+
+    @Test
+    public void writeNextQuote_seedOnly_usesDefaultProfile() {
+        QuoteGenerator generator = new QuoteGenerator(13);
+        byte[] buffer = new byte[generator.getMaxQuoteLength()];
+        int length = generator.writeNextQuote(buffer, 0);
+        Quote quote = Quote.fromString(new String(buffer, 0, length, StandardCharsets.UTF_8));
+        assertTrue(quote.getScaledPrice() > 0);
+        assertEquals(1_000_000, generator.getProfile().getQuotesPerSecond());
+    }
+
+    @Test
+    public void writeNextQuote_longWalk_staysWithinPriceRange() {
+        LoadProfile profile = new LoadProfile(9, new String[] {"AAA"}, 1_000_000, 990.00, 500.00, 1000.00, 400, 50,
+                10, 0);
+        QuoteGenerator generator = new QuoteGenerator(profile);
+        byte[] buffer = new byte[generator.getMaxQuoteLength()];
+        long highest = 0;
+        long lowest = Long.MAX_VALUE;
+        for (int i = 0; i < 100_000; i++) {
+            int length = generator.writeNextQuote(buffer, 0);
+            long price = Quote.fromString(new String(buffer, 0, length, StandardCharsets.UTF_8)).getScaledPrice();
+            highest = Math.max(highest, price);
+            lowest = Math.min(lowest, price);
+        }
+        assertEquals(100_000, highest);
+        assertEquals(50_000, lowest);
+    }
+
+    @Test
+    public void generateLoad_targetRate_appliesAllQuotes() {
+        try (OrderBook orderBook = new OrderBook(2)) {
+            ReplayResult result = orderBook.generateLoad(new QuoteGenerator(LoadProfile.defaults(5, 200_000)), 20_000);
+            assertEquals(20_000, result.getLines());
+            assertEquals(0, result.getMalformedLines());
+            assertTrue(result.getElapsedNanos() >= 90_000_000L);
+            assertNotEquals("Market Data doesn't exist for this instrument", orderBook.topLevel("BTCUSD"));
+        }
+    }
+}
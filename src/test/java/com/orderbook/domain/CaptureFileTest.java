@@ -0,0 +1,115 @@
+package com.orderbook.domain;
+
+import com.orderbook.LoadProfile;
+import com.orderbook.QuoteGenerator;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CaptureFileTest {
+
+    @Test
+    public void convertAndReplay_generatedCapture_matchesTextReplay() throws IOException {
+        Path text = generatedCapture(150_000);
+        Path capture = tempFile(".bin");
+
+        ReplayResult converted = CaptureWriter.convert(text, capture);
+        OrderBook textBook = new OrderBook(1);
+        ReplayResult textResult = new ReplayLoader(textBook, 1, 0).replay(text);
+        OrderBook captureBook = new OrderBook(1);
+        ReplayResult captureResult = new CaptureReader(captureBook).replay(capture);
+
+        assertEquals(150_000, converted.getLines());
+        assertEquals(150_000, captureResult.getLines());
+        ReplayComparison comparison = ReplayComparison.compare(1, textBook, textResult, captureBook, captureResult);
+        assertTrue(comparison.toString(), comparison.isIdentical());
+        assertTrue(Files.size(capture) * 2 < Files.size(text));
+    }
+
+    @Test
+    public void replay_partitioned_matchesSingleWorker() throws IOException {
+        Path capture = tempFile(".bin");
+        CaptureWriter.convert(generatedCapture(100_000), capture);
+        OrderBook single = new OrderBook(1);
+        ReplayResult singleResult = new CaptureReader(single).replay(capture);
+        OrderBook partitioned = new OrderBook(4);
+        ReplayResult partitionedResult = new CaptureReader(partitioned, 4).replay(capture);
+
+        ReplayComparison comparison = ReplayComparison.compare(4, single, singleResult, partitioned, partitionedResult);
+        assertTrue(comparison.toString(), comparison.isIdentical());
+    }
+
+    @Test
+    public void convert_malformedAndOutOfOrderLines_skipsMalformedKeepsTimestamps() throws IOException {
+        Path text = tempFile(".txt");
+        Files.writeString(text, """
+                t=1638848595|i=BTCUSD|p=32.99|q=100|s=s
+                t=1|i=BTCUSD|p=invalid|q=1|s=b
+
+                t=1638848590|i=ETHUSD|p=10.00|q=5|s=b
+                t=1638848599|i=BTCUSD|p=32.99|q=0|s=s
+                t=1638848600|i=BTCUSD|p=33.50|q=7|s=s""");
+        Path capture = tempFile(".bin");
+
+        ReplayResult converted = CaptureWriter.convert(text, capture);
+        OrderBook orderBook = new OrderBook(1);
+        ReplayResult replayed = orderBook.replayCapture(capture);
+
+        assertEquals(5, converted.getLines());
+        assertEquals(1, converted.getMalformedLines());
+        assertEquals(4, replayed.getLines());
+        assertEquals("0:            | 33.50 7.00\n", orderBook.allAsksAndBids("BTCUSD"));
+        assertEquals("0: 5.00 10.00 | \n", orderBook.allAsksAndBids("ETHUSD"));
+        OrderBook textBook = new OrderBook(1);
+        new ReplayLoader(textBook, 1, 0).replay(text);
+        for (String instrument : new String[] {"BTCUSD", "ETHUSD"}) {
+            WindowStats expected = textBook.windowStats(instrument, StatsWindow.ONE_SECOND, 1638848600L);
+            WindowStats actual = orderBook.windowStats(instrument, StatsWindow.ONE_SECOND, 1638848600L);
+            assertEquals(expected.getEndTimestamp(), actual.getEndTimestamp());
+            assertEquals(expected.getUpdates(), actual.getUpdates());
+            assertEquals(expected.getCancels(), actual.getCancels());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void replay_notACapture_throwsException() throws IOException {
+        Path file = tempFile(".bin");
+        Files.writeString(file, "t=1638848595|i=BTCUSD|p=32.99|q=100|s=s\n");
+        new CaptureReader(new OrderBook(1)).replay(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void replay_truncatedBlock_throwsException() throws IOException {
+        Path capture = tempFile(".bin");
+        CaptureWriter.convert(generatedCapture(1_000), capture);
+        byte[] bytes = Files.readAllBytes(capture);
+        Files.write(capture, java.util.Arrays.copyOf(bytes, bytes.length - 10));
+        new CaptureReader(new OrderBook(1)).replay(capture);
+    }
+
+    private static Path generatedCapture(int quotes) throws IOException {
+        QuoteGenerator generator = new QuoteGenerator(LoadProfile.defaults(23, 1_000_000));
+        Path file = tempFile(".txt");
+        byte[] line = new byte[generator.getMaxQuoteLength() + 1];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int i = 0; i < quotes; i++) {
+                int length = generator.writeNextQuote(line, 0);
+                line[length] = '\n';
+                out.write(line, 0, length + 1);
+            }
+        }
+        return file;
+    }
+
+    private static Path tempFile(String suffix) throws IOException {
+        Path file = Files.createTempFile("capture", suffix);
+        file.toFile().deleteOnExit();
+        return file;
+    }
+}
@@ -0,0 +1,51 @@
+package com.orderbook.domain;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class FixedPointTest {
+
+    @Test
+    public void parse_integer_scalesByHundred() {
+        assertEquals(10000, FixedPoint.parse("100"));
+    }
+
+    @Test
+    public void parse_oneDecimal_padsScale() {
+        assertEquals(3280, FixedPoint.parse("32.8"));
+    }
+
+    @Test
+    public void parse_moreDecimalsThanScale_roundsHalfUp() {
+        assertEquals(101, FixedPoint.parse("1.005"));
+        assertEquals(100, FixedPoint.parse("1.0049"));
+        assertEquals(-101, FixedPoint.parse("-1.005"));
+    }
+
+    @Test
+    public void parse_range_parsesOnlyRange() {
+        assertEquals(3299, FixedPoint.parse(ByteBuffer.wrap("p=32.99|".getBytes()), 2, 7));
+    }
+
+    @Test
+    public void parse_invalid_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> FixedPoint.parse("invalid"));
+        assertThrows(IllegalArgumentException.class, () -> FixedPoint.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> FixedPoint.parse("1.2.3"));
+    }
+
+    @Test
+    public void toBigDecimal_keepsTwoDecimals() {
+        assertEquals("100.00", FixedPoint.toBigDecimal(10000).toString());
+    }
+
+    @Test
+    public void fromBigDecimal_roundsHalfUp() {
+        assertEquals(3300, FixedPoint.fromBigDecimal(new BigDecimal("32.995")));
+    }
+}
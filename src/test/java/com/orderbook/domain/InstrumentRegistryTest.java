@@ -0,0 +1,51 @@
+package com.orderbook.domain;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+public class InstrumentRegistryTest {
+
+    @Test
+    public void getOrRegister_sameInstrument_returnsSameEntry() {
+        InstrumentRegistry registry = new InstrumentRegistry(4);
+        Instrument first = registry.getOrRegister("BTCUSD");
+        Instrument second = registry.getOrRegister("BTCUSD");
+        assertSame(first, second);
+        assertSame(first, registry.get("BTCUSD"));
+    }
+
+    @Test
+    public void getOrRegister_newInstruments_spreadsAcrossWriterShards() {
+        InstrumentRegistry registry = new InstrumentRegistry(3);
+        assertEquals(0, registry.getOrRegister("BTCUSD").getWriterShard());
+        assertEquals(1, registry.getOrRegister("ETHUSD").getWriterShard());
+        assertEquals(2, registry.getOrRegister("SOLUSD").getWriterShard());
+        assertEquals(0, registry.getOrRegister("ADAUSD").getWriterShard());
+    }
+
+    @Test
+    public void get_unknownInstrument_returnsNull() {
+        InstrumentRegistry registry = new InstrumentRegistry(1);
+        assertNull(registry.get("non-existent"));
+    }
+
+    @Test
+    public void setLadderType_registeredInstrument_throwsException() {
+        InstrumentRegistry registry = new InstrumentRegistry(1);
+        registry.getOrRegister("BTCUSD");
+        assertThrows(IllegalStateException.class, () -> registry.setLadderType("BTCUSD", LadderType.ARRAY));
+    }
+
+    @Test
+    public void setLadderType_beforeRegistration_usesLadderForInstrument() {
+        InstrumentRegistry registry = new InstrumentRegistry(1);
+        registry.setLadderType("BTCUSD", LadderType.ARRAY);
+        MarketData marketData = registry.getOrRegister("BTCUSD").getMarketData();
+        assertThrows(IllegalArgumentException.class,
+                () -> marketData.insertQuote(Quote.fromString("t=1|i=BTCUSD|p=1000.01|q=1|s=b")));
+    }
+}
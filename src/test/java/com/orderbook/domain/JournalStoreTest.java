@@ -0,0 +1,160 @@
+package com.orderbook.domain;
+
+import com.orderbook.QuoteGenerator;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+public class JournalStoreTest {
+    private static final Duration NO_CHECKPOINT = Duration.ofHours(1);
+    private static final String[] INSTRUMENTS = {"BTCUSD", "ETHUSD", "SOLUSD"};
+
+    @Test
+    public void openJournal_afterRestart_recoversJournaledQuotes() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        OrderBook original = new OrderBook();
+        try (original) {
+            original.openJournal(directory, NO_CHECKPOINT);
+            insertRandomQuotes(original, 500);
+        }
+
+        OrderBook recovered = new OrderBook();
+        ReplayResult result = recovered.openJournal(directory, NO_CHECKPOINT);
+        recovered.closeJournal();
+
+        assertEquals(500, result.getLines());
+        assertBooksEqual(original, recovered);
+    }
+
+    @Test
+    public void openJournal_afterCheckpoint_replaysOnlyJournalTail() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        OrderBook original = new OrderBook();
+        original.openJournal(directory, NO_CHECKPOINT);
+        insertRandomQuotes(original, 400);
+        original.checkpoint();
+        insertRandomQuotes(original, 100);
+        original.closeJournal();
+
+        OrderBook recovered = new OrderBook();
+        ReplayResult result = recovered.openJournal(directory, NO_CHECKPOINT);
+
+        assertEquals(100, result.getLines());
+        assertBooksEqual(original, recovered);
+        insertRandomQuotes(recovered, 50);
+        recovered.checkpoint();
+        recovered.closeJournal();
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    public void openJournal_tornLastRecord_recoversCompleteRecords() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        OrderBook original = new OrderBook();
+        original.openJournal(directory, NO_CHECKPOINT);
+        original.insertQuote("t=1|i=BTCUSD|p=32.99|q=100|s=s");
+        original.insertQuote("t=2|i=BTCUSD|p=32.98|q=50|s=b");
+        original.closeJournal();
+        Path journal;
+        try (Stream<Path> files = Files.list(directory)) {
+            journal = files.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        OrderBook recovered = new OrderBook();
+        ReplayResult result = recovered.openJournal(directory, NO_CHECKPOINT);
+        recovered.closeJournal();
+
+        assertEquals(1, result.getLines());
+        assertEquals("0:            | 32.99 100.00\n", recovered.allAsksAndBids("BTCUSD"));
+    }
+
+    @Test
+    public void openJournal_zeroPaddedTail_recoversRecordsBeforeIt() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        OrderBook original = new OrderBook();
+        original.openJournal(directory, NO_CHECKPOINT);
+        original.insertQuote("t=1|i=BTCUSD|p=32.99|q=100|s=s");
+        original.insertQuote("t=2|i=BTCUSD|p=32.98|q=50|s=b");
+        original.closeJournal();
+        try (Stream<Path> files = Files.list(directory);
+             FileChannel channel = FileChannel.open(files.findFirst().orElseThrow(), StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(100));
+        }
+
+        OrderBook recovered = new OrderBook();
+        ReplayResult result = recovered.openJournal(directory, NO_CHECKPOINT);
+        recovered.closeJournal();
+
+        assertEquals(2, result.getLines());
+        assertEquals(original.allAsksAndBids("BTCUSD"), recovered.allAsksAndBids("BTCUSD"));
+    }
+
+    @Test
+    public void openJournal_concurrentWriters_recoversSameBook() throws Exception {
+        Path directory = Files.createTempDirectory("journal");
+        OrderBook original = new OrderBook();
+        original.openJournal(directory, NO_CHECKPOINT);
+        Thread[] writers = new Thread[4];
+        for (int w = 0; w < writers.length; w++) {
+            Random random = new Random(w);
+            writers[w] = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    int quantity = random.nextInt(3) == 0 ? 0 : 1 + random.nextInt(100);
+                    original.insertQuote("t=" + i + "|i=BTCUSD|p=" + (30 + random.nextInt(4)) + "|q=" + quantity
+                            + "|s=" + (random.nextBoolean() ? "b" : "s"));
+                }
+            });
+            writers[w].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        original.closeJournal();
+        long[] lastVersion = new long[1];
+        try (Stream<Path> files = Files.list(directory)) {
+            QuoteJournal.replay(files.findFirst().orElseThrow(), (quote, version) -> {
+                assertEquals(lastVersion[0] + 1, version);
+                lastVersion[0] = version;
+            });
+        }
+
+        OrderBook recovered = new OrderBook();
+        ReplayResult result = recovered.openJournal(directory, NO_CHECKPOINT);
+        recovered.closeJournal();
+
+        assertEquals(80_000, result.getLines());
+        assertEquals(original.allAsksAndBids("BTCUSD"), recovered.allAsksAndBids("BTCUSD"));
+        assertEquals(original.marketData("BTCUSD").snapshot().getVersion(),
+                recovered.marketData("BTCUSD").snapshot().getVersion());
+    }
+
+    private static void insertRandomQuotes(OrderBook orderBook, int quotes) {
+        QuoteGenerator generator = new QuoteGenerator(42);
+        for (int i = 0; i < quotes; i++) {
+            orderBook.insertQuote(generator.nextQuote());
+        }
+    }
+
+    private static void assertBooksEqual(OrderBook expected, OrderBook actual) {
+        for (String instrument : INSTRUMENTS) {
+            assertEquals(expected.allAsksAndBids(instrument), actual.allAsksAndBids(instrument));
+            assertEquals(expected.volumeWeightedAveragePrice(instrument, 5),
+                    actual.volumeWeightedAveragePrice(instrument, 5));
+        }
+    }
+}
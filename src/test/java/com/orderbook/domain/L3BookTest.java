@@ -0,0 +1,273 @@
+package com.orderbook.domain;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class L3BookTest {
+
+    @Test
+    public void addOrder_samePrice_queuesInArrivalOrder() {
+        L3Book book = new L3Book("BTCUSD");
+        book.addOrder(1, Side.BUY, 3298, 5000, 1);
+        book.addOrder(2, Side.BUY, 3298, 2000, 2);
+        book.addOrder(3, Side.BUY, 3298, 1000, 3);
+        assertArrayEquals(new long[]{1, 2, 3}, book.getOrderIds(Side.BUY, 3298));
+        assertEquals(2, book.getQueuePosition(3));
+        assertEquals(3, book.getOrderCount(Side.BUY, 3298));
+        assertEquals(8000, book.getLevelQuantity(Side.BUY, 3298));
+        assertEquals("80.00 32.98", book.getMarketData().getTopBid().toString());
+    }
+
+    @Test
+    public void cancelOrder_middleOfQueue_unlinksAndUpdatesLevel() {
+        L3Book book = new L3Book("BTCUSD");
+        book.addOrder(1, Side.SELL, 3299, 5000, 1);
+        book.addOrder(2, Side.SELL, 3299, 2000, 2);
+        book.addOrder(3, Side.SELL, 3299, 1000, 3);
+        assertTrue(book.cancelOrder(2, 4));
+        assertFalse(book.cancelOrder(2, 5));
+        assertArrayEquals(new long[]{1, 3}, book.getOrderIds(Side.SELL, 3299));
+        assertEquals(1, book.getQueuePosition(3));
+        assertEquals("32.99 60.00", book.getMarketData().getTopAsk().toString());
+    }
+
+    @Test
+    public void cancelOrder_lastAtLevel_removesLevel() {
+        L3Book book = new L3Book("BTCUSD");
+        book.addOrder(1, Side.SELL, 3299, 5000, 1);
+        book.addOrder(2, Side.SELL, 3310, 2000, 2);
+        book.cancelOrder(1, 3);
+        assertEquals(0, book.getOrderCount(Side.SELL, 3299));
+        assertEquals(1, book.getMarketData().getAskDepth());
+        assertEquals("33.10 20.00", book.getMarketData().getTopAsk().toString());
+        book.cancelOrder(2, 4);
+        assertNull(book.getMarketData().getTopAsk());
+        assertEquals(0, book.getOrderCount());
+    }
+
+    @Test
+    public void modifyOrder_reduce_keepsQueuePosition() {
+        L3Book book = new L3Book("BTCUSD");
+        book.addOrder(1, Side.BUY, 3298, 5000, 1);
+        book.addOrder(2, Side.BUY, 3298, 2000, 2);
+        assertTrue(book.modifyOrder(1, 1000, 3));
+        assertEquals(0, book.getQueuePosition(1));
+        assertEquals(1000, book.getOrderQuantity(1));
+        assertEquals(3000, book.getLevelQuantity(Side.BUY, 3298));
+        assertEquals(new BigDecimal("30.00"), book.getMarketData().totalQuantityOverNLevels(1));
+    }
+
+    @Test
+    public void modifyOrder_increase_losesQueuePosition() {
+        L3Book book = new L3Book("BTCUSD");
+        book.addOrder(1, Side.BUY, 3298, 5000, 1);
+        book.addOrder(2, Side.BUY, 3298, 2000, 2);
+        assertTrue(book.modifyOrder(1, 6000, 3));
+        assertArrayEquals(new long[]{2, 1}, book.getOrderIds(Side.BUY, 3298));
+        assertEquals(8000, book.getLevelQuantity(Side.BUY, 3298));
+    }
+
+    @Test
+    public void modifyOrder_zeroQuantity_cancels() {
+        L3Book book = new L3Book("BTCUSD");
+        book.addOrder(1, Side.BUY, 3298, 5000, 1);
+        assertTrue(book.modifyOrder(1, 0, 2));
+        assertEquals(-1, book.getQueuePosition(1));
+        assertFalse(book.modifyOrder(1, 10, 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addOrder_duplicateId_throwsException() {
+        L3Book book = new L3Book("BTCUSD");
+        book.addOrder(1, Side.BUY, 3298, 5000, 1);
+        book.addOrder(1, Side.SELL, 3299, 5000, 2);
+    }
+
+    @Test
+    public void randomOrders_levelQueries_matchPerOrderTotals() {
+        Random random = new Random(11);
+        L3Book book = new L3Book("BTCUSD", LadderType.ARRAY, 64);
+        Map<Long, long[]> live = new HashMap<>();
+        List<Long> ids = new ArrayList<>();
+        long nextId = 1;
+        for (int i = 0; i < 20_000; i++) {
+            int action = random.nextInt(10);
+            if (action < 5 || ids.isEmpty()) {
+                Side side = random.nextBoolean() ? Side.BUY : Side.SELL;
+                long price = side == Side.BUY ? 3000 + random.nextInt(50) : 3050 + random.nextInt(50);
+                long quantity = 1 + random.nextInt(10_000);
+                book.addOrder(nextId, side, price, quantity, i);
+                live.put(nextId, new long[]{side.ordinal(), price, quantity});
+                ids.add(nextId++);
+            } else {
+                int index = random.nextInt(ids.size());
+                long id = ids.get(index);
+                if (action < 8) {
+                    assertTrue(book.cancelOrder(id, i));
+                    live.remove(id);
+                    ids.set(index, ids.get(ids.size() - 1));
+                    ids.remove(ids.size() - 1);
+                } else {
+                    long quantity = 1 + random.nextInt(10_000);
+                    assertTrue(book.modifyOrder(id, quantity, i));
+                    live.get(id)[2] = quantity;
+                }
+            }
+        }
+        TreeMap<Long, Long> bids = new TreeMap<>();
+        TreeMap<Long, Long> asks = new TreeMap<>();
+        for (long[] order : live.values()) {
+            (order[0] == Side.BUY.ordinal() ? bids : asks).merge(order[1], order[2], Long::sum);
+        }
+        assertEquals(live.size(), book.getOrderCount());
+        assertLevels(bids.descendingMap(), book.getMarketData().getBids());
+        assertLevels(asks, book.getMarketData().getAsks());
+        for (Map.Entry<Long, Long> level : bids.entrySet()) {
+            assertEquals((long) level.getValue(), book.getLevelQuantity(Side.BUY, level.getKey()));
+        }
+    }
+
+    @Test
+    public void submitOrder_crossesSeveralLevels_fillsInPriceTimeOrder() {
+        L3Book book = new L3Book("BTCUSD");
+        book.addOrder(1, Side.SELL, 3300, 1000, 1);
+        book.addOrder(2, Side.SELL, 3299, 2000, 2);
+        book.addOrder(3, Side.SELL, 3299, 3000, 3);
+        book.addOrder(4, Side.SELL, 3310, 4000, 4);
+        List<String> trades = new ArrayList<>();
+        long remaining = book.submitOrder(10, Side.BUY, 3300, 7000, 5, recorder(trades));
+        assertEquals(List.of("10x2 3299 2000", "10x3 3299 3000", "10x1 3300 1000"), trades);
+        assertEquals(1000, remaining);
+        assertEquals("10.00 33.00", book.getMarketData().getTopBid().toString());
+        assertEquals("33.10 40.00", book.getMarketData().getTopAsk().toString());
+        assertEquals(2, book.getOrderCount());
+    }
+
+    @Test
+    public void submitOrder_partialFill_leavesMakerAtHeadOfQueue() {
+        L3Book book = new L3Book("BTCUSD");
+        book.addOrder(1, Side.BUY, 3298, 5000, 1);
+        book.addOrder(2, Side.BUY, 3298, 5000, 2);
+        List<String> trades = new ArrayList<>();
+        assertEquals(0, book.submitOrder(10, Side.SELL, 3290, 1500, 3, recorder(trades)));
+        assertEquals(List.of("10x1 3298 1500"), trades);
+        assertArrayEquals(new long[]{1, 2}, book.getOrderIds(Side.BUY, 3298));
+        assertEquals(3500, book.getOrderQuantity(1));
+        assertEquals(8500, book.getLevelQuantity(Side.BUY, 3298));
+        assertEquals(new BigDecimal("85.00"), book.getMarketData().totalQuantityOverNLevels(1));
+        assertNull(book.getMarketData().getTopAsk());
+    }
+
+    @Test
+    public void windowStats_fillsAmendsAndCancels_classifiedBySource() {
+        L3Book book = new L3Book("BTCUSD");
+        book.addOrder(1, Side.SELL, 3299, 2000, 1_000);
+        book.addOrder(2, Side.SELL, 3299, 3000, 1_001);
+        book.addOrder(3, Side.SELL, 3300, 1000, 1_002);
+        book.addOrder(4, Side.SELL, 3310, 1000, 1_003);
+        book.submitOrder(10, Side.BUY, 3299, 2500, 1_004, recorder(new ArrayList<>()));
+        book.modifyOrder(2, 1000, 1_005);
+        book.cancelLevel(Side.SELL, 3300, 1_006);
+        WindowStats stats = book.getMarketData().windowStats(StatsWindow.ONE_MINUTE, 1_006);
+        assertEquals(4, stats.getUpdates());
+        assertEquals(2, stats.getTrades());
+        assertEquals(new BigDecimal("25.00"), stats.getTradedQuantity());
+        assertEquals(1, stats.getAmends());
+        assertEquals(1, stats.getCancels());
+    }
+
+    @Test
+    public void windowStats_cancelOrder_recordedAtCancelTime() {
+        L3Book book = new L3Book("BTCUSD");
+        book.addOrder(1, Side.SELL, 3299, 2000, 1_000);
+        book.cancelOrder(1, 100_000);
+        assertEquals(1, book.getMarketData().windowStats(StatsWindow.ONE_SECOND, 100_000).getCancels());
+    }
+
+    @Test
+    public void submitOrder_notCrossing_rests() {
+        L3Book book = new L3Book("BTCUSD");
+        book.addOrder(1, Side.SELL, 3299, 1000, 1);
+        List<String> trades = new ArrayList<>();
+        assertEquals(1000, book.submitOrder(2, Side.BUY, 3298, 1000, 2, recorder(trades)));
+        assertTrue(trades.isEmpty());
+        assertEquals(0, book.getQueuePosition(2));
+    }
+
+    @Test
+    public void submitOrder_randomFlow_neverLeavesBookCrossed() {
+        Random random = new Random(5);
+        L3Book book = new L3Book("BTCUSD", LadderType.ARRAY, 64);
+        long[] traded = new long[1];
+        TradeListener listener = (instrument, taker, maker, side, price, quantity, timestamp) -> traded[0] += quantity;
+        long submitted = 0;
+        long filled = 0;
+        for (int i = 1; i <= 20_000; i++) {
+            Side side = random.nextBoolean() ? Side.BUY : Side.SELL;
+            long quantity = 1 + random.nextInt(1_000);
+            long remaining = book.submitOrder(i, side, 3000 + random.nextInt(40), quantity, i, listener);
+            submitted += quantity;
+            filled += quantity - remaining;
+            Quote bid = book.getMarketData().getTopBid();
+            Quote ask = book.getMarketData().getTopAsk();
+            if (bid != null && ask != null) assertTrue(bid.getScaledPrice() < ask.getScaledPrice());
+        }
+        assertEquals(filled, traded[0]);
+        long resting = 0;
+        for (Quote level : book.getMarketData().getBids()) resting += level.getScaledQuantity();
+        for (Quote level : book.getMarketData().getAsks()) resting += level.getScaledQuantity();
+        assertEquals(submitted - 2 * traded[0], resting);
+    }
+
+    @Test
+    public void submitOrder_steadyState_doesNotAllocatePerFill() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        L3Book book = new L3Book("BTCUSD", LadderType.ARRAY, 1024);
+        long[] traded = new long[1];
+        TradeListener listener = (instrument, taker, maker, side, price, quantity, timestamp) -> traded[0] += quantity;
+        for (int i = 0; i < 512; i++) {
+            book.addOrder(i, Side.SELL, 3300 + i % 8, 1000, i);
+        }
+        long id = 1_000;
+        for (int round = 0; round < 2; round++) {
+            long allocatedBefore = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            for (int i = 0; i < 200_000; i++) {
+                book.submitOrder(id++, Side.BUY, 3310, 1000, i, listener);
+                book.addOrder(id++, Side.SELL, 3300 + i % 8, 1000, i);
+            }
+            long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedBefore;
+            if (round == 1) assertTrue("allocated " + allocated + " bytes", allocated < 200_000);
+        }
+        assertEquals(400_000 * 1000L, traded[0]);
+        assertEquals(512, book.getOrderCount());
+    }
+
+    private static TradeListener recorder(List<String> trades) {
+        return (instrument, taker, maker, side, price, quantity, timestamp) ->
+                trades.add(taker + "x" + maker + " " + price + " " + quantity);
+    }
+
+    private static void assertLevels(Map<Long, Long> expected, List<Quote> actual) {
+        assertEquals(expected.size(), actual.size());
+        int i = 0;
+        for (Map.Entry<Long, Long> level : expected.entrySet()) {
+            assertEquals((long) level.getKey(), actual.get(i).getScaledPrice());
+            assertEquals((long) level.getValue(), actual.get(i).getScaledQuantity());
+            i++;
+        }
+    }
+}
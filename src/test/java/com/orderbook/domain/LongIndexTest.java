@@ -0,0 +1,33 @@
+package com.orderbook.domain;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class LongIndexTest {
+
+    @Test
+    public void putAndRemove_randomKeys_matchesHashMap() {
+        Random random = new Random(3);
+        LongIndex<String> index = new LongIndex<>(4);
+        Map<Long, String> expected = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(2_000) * 1024L;
+            if (random.nextBoolean()) {
+                index.put(key, "v" + i);
+                expected.put(key, "v" + i);
+            } else {
+                assertEquals(expected.remove(key), index.remove(key));
+            }
+            assertEquals(expected.get(key), index.get(key));
+        }
+        assertEquals(expected.size(), index.size());
+        for (Map.Entry<Long, String> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), index.get(entry.getKey()));
+        }
+    }
+}
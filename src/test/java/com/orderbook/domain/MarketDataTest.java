@@ -3,10 +3,13 @@ package com.orderbook.domain;
 import org.junit.Test;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class MarketDataTest {
 
@@ -214,4 +217,262 @@ public class MarketDataTest {
         BigDecimal volumeWeightedPrice = marketData.volumeWeightedPriceOverNLevels(2);
         assertEquals(0, BigDecimal.ZERO.compareTo(volumeWeightedPrice));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void insertQuote_concurrentWritersSamePrice_aggregatesAllQuantity() throws InterruptedException {
+        MarketData marketData = new MarketData();
+        Thread[] writers = new Thread[4];
+        for (int w = 0; w < writers.length; w++) {
+            writers[w] = new Thread(() -> {
+                Quote quote = Quote.fromString("t=1638848595|i=BTCUSD|p=32.99|q=1|s=b");
+                for (int i = 0; i < 10000; i++) {
+                    marketData.insertQuote(quote);
+                }
+            });
+            writers[w].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertEquals(1, marketData.getBids().size());
+        assertEquals(0, BigDecimal.valueOf(40000).compareTo(marketData.getTopBid().getQuantity()));
+    }
+
+    @Test
+    public void insertQuote_concurrentDeletes_neverLeavesRemovedLevelVisible() throws InterruptedException {
+        MarketData marketData = new MarketData();
+        Thread adder = new Thread(() -> {
+            Quote quote = Quote.fromString("t=1638848595|i=BTCUSD|p=32.99|q=1|s=s");
+            for (int i = 0; i < 10000; i++) {
+                marketData.insertQuote(quote);
+            }
+        });
+        Thread deleter = new Thread(() -> {
+            Quote quote = Quote.fromString("t=1638848595|i=BTCUSD|p=32.99|q=0|s=s");
+            for (int i = 0; i < 10000; i++) {
+                marketData.insertQuote(quote);
+            }
+        });
+        adder.start();
+        deleter.start();
+        adder.join();
+        deleter.join();
+        List<Quote> asks = marketData.getAsks();
+        assertTrue(asks.size() <= 1);
+        for (Quote ask : asks) {
+            assertTrue(ask.getScaledQuantity() > 0);
+        }
+        marketData.insertQuote(Quote.fromString("t=1638848595|i=BTCUSD|p=32.99|q=0|s=s"));
+        assertNull(marketData.getTopAsk());
+        assertEquals(0, BigDecimal.ZERO.compareTo(marketData.totalQuantityOverNLevels(1)));
+    }
+
+    @Test
+    public void aggregatesOverNLevels_trackedDepths_matchWalkingTheBook() {
+        MarketData tracked = new MarketData(1, 3, 5);
+        MarketData walked = new MarketData(new int[0]);
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            String side = random.nextBoolean() ? "b" : "s";
+            int price = random.nextInt(20) + 1;
+            int quantity = random.nextInt(4) == 0 ? 0 : random.nextInt(1000);
+            Quote quote = Quote.fromString("t=1|i=BTCUSD|p=" + price + "." + random.nextInt(10) + "|q=" + quantity + "|s=" + side);
+            tracked.insertQuote(quote);
+            walked.insertQuote(quote);
+            for (int n : new int[] {1, 3, 5}) {
+                assertEquals(walked.averagePriceOverNLevels(n), tracked.averagePriceOverNLevels(n));
+                assertEquals(walked.totalQuantityOverNLevels(n), tracked.totalQuantityOverNLevels(n));
+                assertEquals(walked.volumeWeightedPriceOverNLevels(n), tracked.volumeWeightedPriceOverNLevels(n));
+            }
+        }
+    }
+
+    @Test
+    public void insertQuote_arrayLadder_matchesSkipListLadder() {
+        MarketData skipList = new MarketData(LadderType.SKIP_LIST);
+        MarketData array = new MarketData(LadderType.ARRAY);
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            String side = random.nextBoolean() ? "b" : "s";
+            int quantity = random.nextInt(4) == 0 ? 0 : random.nextInt(1000);
+            Quote quote = Quote.fromString("t=1|i=BTCUSD|p=" + random.nextInt(1000) + "." + random.nextInt(100) + "|q=" + quantity + "|s=" + side);
+            skipList.insertQuote(quote);
+            array.insertQuote(quote);
+        }
+        assertEquals(skipList.getBids().toString(), array.getBids().toString());
+        assertEquals(skipList.getAsks().toString(), array.getAsks().toString());
+        assertEquals(skipList.getTopBid().toString(), array.getTopBid().toString());
+        assertEquals(skipList.getTopAsk().toString(), array.getTopAsk().toString());
+        for (int n : new int[] {1, 3, 20, 100}) {
+            assertEquals(skipList.volumeWeightedPriceOverNLevels(n), array.volumeWeightedPriceOverNLevels(n));
+            assertEquals(skipList.averagePriceOverNLevels(n), array.averagePriceOverNLevels(n));
+        }
+    }
+
+    @Test
+    public void getTopBid_arrayLadderAfterBestRemoved_returnsNextBest() {
+        MarketData marketData = new MarketData(LadderType.ARRAY);
+        marketData.insertQuote(Quote.fromString("t=1|i=BTCUSD|p=35.64|q=100|s=b"));
+        marketData.insertQuote(Quote.fromString("t=1|i=BTCUSD|p=39.5|q=100|s=b"));
+        marketData.insertQuote(Quote.fromString("t=1|i=BTCUSD|p=39.5|q=0|s=b"));
+        assertEquals(0, BigDecimal.valueOf(35.64).compareTo(marketData.getTopBid().getPrice()));
+        marketData.insertQuote(Quote.fromString("t=1|i=BTCUSD|p=35.64|q=0|s=b"));
+        assertNull(marketData.getTopBid());
+    }
+
+    @Test
+    public void snapshot_laterInserts_doNotChangeSnapshot() {
+        MarketData marketData = new MarketData();
+        marketData.insertQuote(Quote.fromString("t=1|i=BTCUSD|p=35.64|q=100|s=b"));
+        marketData.insertQuote(Quote.fromString("t=1|i=BTCUSD|p=36.10|q=50|s=s"));
+        BookSnapshot snapshot = marketData.snapshot();
+
+        marketData.insertQuote(Quote.fromString("t=2|i=BTCUSD|p=35.64|q=300|s=b"));
+        marketData.insertQuote(Quote.fromString("t=2|i=BTCUSD|p=36.10|q=0|s=s"));
+
+        assertEquals(1, snapshot.getBidDepth());
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(snapshot.getTopBid().getQuantity()));
+        assertEquals(0, BigDecimal.valueOf(36.10).compareTo(snapshot.getTopAsk().getPrice()));
+        assertNull(marketData.snapshot().getTopAsk());
+        assertTrue(marketData.snapshot().getVersion() > snapshot.getVersion());
+    }
+
+    @Test
+    public void snapshot_noWritesSinceLastSnapshot_returnsCachedSnapshot() {
+        MarketData marketData = new MarketData();
+        marketData.insertQuote(Quote.fromString("t=1|i=BTCUSD|p=35.64|q=100|s=b"));
+        BookSnapshot snapshot = marketData.snapshot();
+
+        assertTrue(snapshot == marketData.snapshot());
+        marketData.insertQuote(Quote.fromString("t=2|i=BTCUSD|p=35.65|q=100|s=b"));
+        assertTrue(snapshot != marketData.snapshot());
+    }
+
+    @Test
+    public void snapshot_limitedLevels_matchesLiveQueries() {
+        MarketData marketData = new MarketData();
+        Random random = new Random(11);
+        for (int i = 0; i < 2000; i++) {
+            String side = random.nextBoolean() ? "b" : "s";
+            int quantity = random.nextInt(4) == 0 ? 0 : random.nextInt(1000);
+            marketData.insertQuote(Quote.fromString("t=1|i=BTCUSD|p=" + random.nextInt(500) + "|q=" + quantity + "|s=" + side));
+        }
+        BookSnapshot full = marketData.snapshot();
+        BookSnapshot top = marketData.snapshot(3);
+
+        assertEquals(marketData.getBids().toString(), full.getBids().toString());
+        assertEquals(marketData.getAsks().toString(), full.getAsks().toString());
+        assertEquals(marketData.getBids().subList(0, 3).toString(), top.getBids().toString());
+        for (int n : new int[] {1, 3, 7, 50}) {
+            assertEquals(marketData.averagePriceOverNLevels(n), full.averagePriceOverNLevels(n));
+            assertEquals(marketData.totalQuantityOverNLevels(n), full.totalQuantityOverNLevels(n));
+            assertEquals(marketData.volumeWeightedPriceOverNLevels(n), full.volumeWeightedPriceOverNLevels(n));
+        }
+    }
+
+    @Test
+    public void snapshot_concurrentWriter_matchesSnapshotVersion() throws InterruptedException {
+        MarketData marketData = new MarketData();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                long bid = 1000 + i % 50;
+                marketData.insertQuote(Quote.fromString("t=1|i=BTCUSD|p=" + bid + "|q=10|s=b"));
+                marketData.insertQuote(Quote.fromString("t=1|i=BTCUSD|p=" + (bid + 1) + "|q=10|s=s"));
+                marketData.insertQuote(Quote.fromString("t=1|i=BTCUSD|p=" + bid + "|q=0|s=b"));
+                marketData.insertQuote(Quote.fromString("t=1|i=BTCUSD|p=" + (bid + 1) + "|q=0|s=s"));
+            }
+        });
+        int[] expectedDepth = {0, 1, 2, 1};
+        writer.start();
+        while (writer.isAlive()) {
+            BookSnapshot snapshot = marketData.snapshot();
+            assertEquals(expectedDepth[(int) (snapshot.getVersion() % 4)], snapshot.getBidDepth() + snapshot.getAskDepth());
+        }
+        writer.join();
+    }
+
+    @Test
+    public void subscribe_changeOutsideDepth_notDelivered() {
+        MarketData marketData = new MarketData();
+        List<BookSnapshot> updates = new ArrayList<>();
+        marketData.subscribe(1, updates::add, Runnable::run);
+        marketData.insertQuote(Quote.fromString("t=1|i=BTCUSD|p=35.64|q=100|s=b"));
+        marketData.insertQuote(Quote.fromString("t=2|i=BTCUSD|p=35.50|q=100|s=b"));
+        marketData.insertQuote(Quote.fromString("t=3|i=BTCUSD|p=36.10|q=40|s=s"));
+
+        assertEquals(2, updates.size());
+        assertEquals(0, BigDecimal.valueOf(35.64).compareTo(updates.get(0).getTopBid().getPrice()));
+        assertNull(updates.get(0).getTopAsk());
+        assertEquals(0, BigDecimal.valueOf(36.10).compareTo(updates.get(1).getTopAsk().getPrice()));
+    }
+
+    @Test
+    public void subscribe_closed_stopsDelivery() {
+        MarketData marketData = new MarketData();
+        List<BookSnapshot> updates = new ArrayList<>();
+        BookSubscription subscription = marketData.subscribe(5, updates::add, Runnable::run);
+        marketData.insertQuote(Quote.fromString("t=1|i=BTCUSD|p=35.64|q=100|s=b"));
+        subscription.close();
+        marketData.insertQuote(Quote.fromString("t=2|i=BTCUSD|p=35.65|q=100|s=b"));
+
+        assertEquals(1, updates.size());
+    }
+
+    @Test
+    public void insertQuote_offHeapLadder_matchesSkipListLadder() {
+        MarketData skipList = new MarketData(LadderType.SKIP_LIST);
+        MarketData offHeap = new MarketData(LadderType.OFF_HEAP);
+        Random random = new Random(13);
+        for (int i = 0; i < 20000; i++) {
+            String side = random.nextBoolean() ? "b" : "s";
+            int quantity = random.nextInt(4) == 0 ? 0 : random.nextInt(1000);
+            Quote quote = Quote.fromString("t=1|i=BTCUSD|p=" + random.nextInt(5000) + "." + random.nextInt(100) + "|q=" + quantity + "|s=" + side);
+            skipList.insertQuote(quote);
+            offHeap.insertQuote(quote);
+        }
+        assertTrue(offHeap.getBidDepth() > 64);
+        assertEquals(skipList.getBids().toString(), offHeap.getBids().toString());
+        assertEquals(skipList.getAsks().toString(), offHeap.getAsks().toString());
+        assertEquals(skipList.getTopBid().toString(), offHeap.getTopBid().toString());
+        assertEquals(skipList.getTopAsk().toString(), offHeap.getTopAsk().toString());
+        for (int n : new int[] {1, 3, 20, 100}) {
+            assertEquals(skipList.volumeWeightedPriceOverNLevels(n), offHeap.volumeWeightedPriceOverNLevels(n));
+            assertEquals(skipList.averagePriceOverNLevels(n), offHeap.averagePriceOverNLevels(n));
+            assertEquals(skipList.totalQuantityOverNLevels(n), offHeap.totalQuantityOverNLevels(n));
+        }
+    }
+
+    @Test
+    public void getTopAsk_offHeapLadderAfterBestRemoved_returnsNextBest() {
+        MarketData marketData = new MarketData(LadderType.OFF_HEAP);
+        marketData.insertQuote(Quote.fromString("t=1|i=BTCUSD|p=35.64|q=100|s=s"));
+        marketData.insertQuote(Quote.fromString("t=1|i=BTCUSD|p=31.5|q=100|s=s"));
+        marketData.insertQuote(Quote.fromString("t=1|i=BTCUSD|p=31.5|q=0|s=s"));
+        assertEquals(0, BigDecimal.valueOf(35.64).compareTo(marketData.getTopAsk().getPrice()));
+        marketData.insertQuote(Quote.fromString("t=1|i=BTCUSD|p=35.64|q=0|s=s"));
+        assertNull(marketData.getTopAsk());
+    }
+
+    @Test
+    public void insertQuote_existingSkipListLevel_doesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        MarketData marketData = new MarketData(LadderType.SKIP_LIST);
+        Quote quote = new Quote();
+        for (int i = 0; i < 64; i++) {
+            quote.set("BTCUSD", 10_000 + i * 1_000, 100, i % 2 == 0 ? Side.BUY : Side.SELL);
+            marketData.insertQuote(quote);
+        }
+        for (int round = 0; round < 2; round++) {
+            long allocatedBefore = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            for (int i = 0; i < 200_000; i++) {
+                quote.set("BTCUSD", 10_000 + (i % 64) * 1_000, 1, i % 2 == 0 ? Side.BUY : Side.SELL);
+                quote.setTimestamp(i);
+                marketData.insertQuote(quote);
+            }
+            long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedBefore;
+            if (round == 1) assertTrue(allocated < 200_000, "allocated " + allocated + " bytes");
+        }
+        assertEquals(64, marketData.getBidDepth() + marketData.getAskDepth());
+    }
+}
@@ -1,8 +1,29 @@
 package com.orderbook.domain;
 
+import com.orderbook.metrics.InstrumentMetrics;
+import com.orderbook.metrics.MetricsSnapshot;
+import com.orderbook.LoadProfile;
+import com.orderbook.QuoteGenerator;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
 public class OrderBookTest {
     private static final String warning = "Market Data doesn't exist for this instrument";
@@ -23,6 +44,67 @@ public class OrderBookTest {
         assertEquals(warning, orderBook.allAsksAndBids("SOLUSD"));
     }
 
+    @Test
+    public void insertQuote_priceAboveArrayLadderRange_rejectsQuote() {
+        OrderBook orderBook = new OrderBook();
+        orderBook.setLadderType("BTCUSD", LadderType.ARRAY);
+        orderBook.insertQuote("t=1638848595|i=BTCUSD|p=32.99|q=100|s=s");
+        orderBook.insertQuote("t=1638848596|i=BTCUSD|p=1000.01|q=100|s=s");
+
+        assertEquals("0:            | 32.99 100.00\n", orderBook.allAsksAndBids("BTCUSD"));
+        assertEquals(1, orderBook.metrics().getRejectedQuotes());
+    }
+
+    @Test
+    public void insertQuotes_priceAboveArrayLadderRange_countsQuoteAsRejected() {
+        OrderBook orderBook = new OrderBook();
+        orderBook.setLadderType("BTCUSD", LadderType.ARRAY);
+        byte[] packet = """
+                t=1|i=BTCUSD|p=32.99|q=100|s=s
+                t=2|i=BTCUSD|p=1200|q=5|s=s
+                t=3|i=BTCUSD|p=31.5|q=1|s=b
+                """.getBytes(StandardCharsets.UTF_8);
+
+        ReplayResult result = orderBook.insertQuotes(packet, 0, packet.length);
+
+        assertEquals(3, result.getLines());
+        assertEquals(0, result.getMalformedLines());
+        assertEquals(1, result.getRejectedQuotes());
+        assertEquals("0: 1.00 31.50 | 32.99 100.00\n", orderBook.allAsksAndBids("BTCUSD"));
+        assertEquals(2, orderBook.marketData("BTCUSD").snapshot().getVersion());
+    }
+
+    @Test
+    public void getSymbols_separateBooks_assignIdsIndependently() {
+        OrderBook first = new OrderBook();
+        OrderBook second = new OrderBook();
+        first.insertQuote("t=1|i=ETHUSD|p=31.5|q=1|s=b");
+        second.insertQuote("t=1|i=BTCUSD|p=32.99|q=100|s=s");
+        QuoteBatch batch = new QuoteBatch(first.getSymbols());
+        batch.add(Quote.fromString("t=2|i=BTCUSD|p=33|q=2|s=s"));
+        second.apply(batch);
+
+        assertEquals(0, first.getSymbols().find("ETHUSD"));
+        assertEquals(0, second.getSymbols().find("BTCUSD"));
+        assertEquals(-1, second.getSymbols().find("ETHUSD"));
+        assertEquals("102.00", second.totalQuantity("BTCUSD", 2));
+        assertEquals(warning, second.totalQuantity("ETHUSD", 1));
+    }
+
+    @Test
+    public void apply_priceAboveArrayLadderRange_appliesNothing() {
+        OrderBook orderBook = new OrderBook();
+        orderBook.setLadderType("ETHUSD", LadderType.ARRAY);
+        QuoteBatch batch = new QuoteBatch();
+        batch.add(Quote.fromString("t=1|i=BTCUSD|p=32.99|q=100|s=s"));
+        batch.add(Quote.fromString("t=2|i=ETHUSD|p=31.5|q=1|s=b"));
+        batch.add(Quote.fromString("t=3|i=ETHUSD|p=1000.01|q=1|s=b"));
+
+        assertThrows(IllegalArgumentException.class, () -> orderBook.apply(batch));
+        assertEquals(0, orderBook.marketData("BTCUSD").snapshot().getVersion());
+        assertEquals(0, orderBook.marketData("ETHUSD").snapshot().getVersion());
+    }
+
     @Test
     public void allAsksAndBids_noInstrumentExists_returnsWarning() {
         OrderBook orderBook = new OrderBook();
@@ -133,4 +215,318 @@ public class OrderBookTest {
         orderBook.insertQuote(quoteStr);
         assertEquals("32.99000000", orderBook.volumeWeightedAveragePrice("BTCUSD", 1));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void readQuotes_multipleLines_insertsValidQuotes() throws IOException {
+        String lines = """
+                t=1638848595|i=BTCUSD|p=32.99|q=160|s=s
+                t=1638848595|i=BTCUSD|p=invalid|q=170.8|s=s
+                t=1638848595|i=BTCUSD|p=37.59|q=1949.5|s=b""";
+        OrderBook orderBook = new OrderBook();
+        orderBook.readQuotes(new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8)));
+        String expected = """
+                0: 1949.50 37.59 | 32.99 160.00
+                """;
+        assertEquals(expected, orderBook.allAsksAndBids("BTCUSD"));
+    }
+
+    @Test
+    public void submitQuote_concurrentProducers_matchesSynchronousInsert() throws InterruptedException {
+        String[] instruments = {"BTCUSD", "ETHUSD", "SOLUSD", "ADAUSD", "DOTUSD"};
+        OrderBook sharded = new OrderBook(3);
+        OrderBook synchronous = new OrderBook(1);
+        Thread[] producers = new Thread[instruments.length];
+        for (int p = 0; p < producers.length; p++) {
+            String instrument = instruments[p];
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    String quoteStr = "t=1|i=" + instrument + "|p=" + (i % 50 + 1) + "|q=" + (i % 7) + "|s=" + (i % 2 == 0 ? "b" : "s");
+                    sharded.submitQuote(Quote.fromString(quoteStr));
+                }
+            });
+            producers[p].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        for (String instrument : instruments) {
+            for (int i = 0; i < 1000; i++) {
+                synchronous.insertQuote("t=1|i=" + instrument + "|p=" + (i % 50 + 1) + "|q=" + (i % 7) + "|s=" + (i % 2 == 0 ? "b" : "s"));
+            }
+        }
+        sharded.close();
+        for (String instrument : instruments) {
+            assertEquals(synchronous.allAsksAndBids(instrument), sharded.allAsksAndBids(instrument));
+        }
+    }
+
+    @Test
+    public void close_submittedQuotes_appliedBeforeWritersStop() {
+        OrderBook orderBook = new OrderBook(2);
+        for (int i = 0; i < 1000; i++) {
+            orderBook.submitQuote(Quote.fromString("t=" + i + "|i=BTCUSD|p=32.99|q=1|s=s"));
+        }
+        orderBook.close();
+
+        assertEquals("1000.00", orderBook.totalQuantity("BTCUSD", 1));
+        assertThrows(IllegalStateException.class,
+                () -> orderBook.submitQuote(Quote.fromString("t=1|i=BTCUSD|p=32.99|q=1|s=s")));
+        orderBook.close();
+    }
+
+    @Test
+    public void metrics_enabled_countsInsertsErrorsAndDepth() {
+        OrderBook orderBook = new OrderBook(1);
+        orderBook.enableMetrics();
+        orderBook.insertQuote("t=1638848595|i=BTCUSD|p=32.99|q=160|s=s");
+        orderBook.insertQuote("t=1638848595|i=BTCUSD|p=34.2|q=170.8|s=s");
+        orderBook.insertQuote("t=1638848595|i=BTCUSD|p=37.59|q=1949.5|s=b");
+        orderBook.insertQuote("t=1638848595|i=BTCUSD|p=invalid|q=1|s=b");
+        orderBook.topLevel("BTCUSD");
+
+        MetricsSnapshot metrics = orderBook.metrics();
+        assertEquals(1, metrics.getParseErrors());
+        assertEquals(3, metrics.getParseLatency().getCount());
+        assertEquals(3, metrics.getInsertLatency().getCount());
+        assertEquals(1, metrics.getQueryLatency().getCount());
+        InstrumentMetrics instrument = metrics.getInstruments().get(0);
+        assertEquals("BTCUSD", instrument.getInstrument());
+        assertEquals(3, instrument.getInserts());
+        assertEquals(1, instrument.getBidDepth());
+        assertEquals(2, instrument.getAskDepth());
+    }
+
+    @Test
+    public void subscribeTopOfBook_slowListener_receivesConflatedLatestState() throws InterruptedException {
+        try (OrderBook orderBook = new OrderBook()) {
+            CountDownLatch release = new CountDownLatch(1);
+            BlockingQueue<BookSnapshot> updates = new LinkedBlockingQueue<>();
+            orderBook.subscribeTopOfBook("BTCUSD", snapshot -> {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                updates.add(snapshot);
+            });
+            for (int i = 1; i <= 1000; i++) {
+                orderBook.insertQuote("t=" + i + "|i=BTCUSD|p=" + (100 + i) + "|q=1|s=b");
+            }
+            release.countDown();
+
+            int deliveries = 0;
+            BookSnapshot latest;
+            do {
+                latest = updates.poll(5, TimeUnit.SECONDS);
+                deliveries++;
+            } while (latest != null && latest.getTopBid().getScaledPrice() != 110000);
+            assertEquals(110000, latest.getTopBid().getScaledPrice());
+            assertTrue(deliveries <= 3);
+        }
+    }
+
+    @Test
+    public void insertQuotes_packet_matchesSequentialInserts() {
+        QuoteGenerator generator = new QuoteGenerator(LoadProfile.defaults(3, 1_000_000));
+        byte[] line = new byte[generator.getMaxQuoteLength()];
+        StringBuilder packet = new StringBuilder();
+        OrderBook sequential = new OrderBook();
+        for (int i = 0; i < 3000; i++) {
+            String quote = new String(line, 0, generator.writeNextQuote(line, 0), StandardCharsets.UTF_8);
+            sequential.insertQuote(quote);
+            packet.append(quote).append('\n');
+            if (i % 500 == 0) packet.append("t=1|i=BTCUSD|p=invalid|q=1|s=b\n");
+        }
+        byte[] bytes = packet.toString().getBytes(StandardCharsets.UTF_8);
+
+        OrderBook batched = new OrderBook();
+        ReplayResult result = batched.insertQuotes(bytes, 0, bytes.length);
+
+        assertEquals(3006, result.getLines());
+        assertEquals(6, result.getMalformedLines());
+        for (String instrument : new String[] {"BTCUSD", "ETHUSD", "SOLUSD"}) {
+            assertEquals(sequential.allAsksAndBids(instrument), batched.allAsksAndBids(instrument));
+            for (int levels : new int[] {1, 5, 7}) {
+                assertEquals(sequential.volumeWeightedAveragePrice(instrument, levels),
+                        batched.volumeWeightedAveragePrice(instrument, levels));
+            }
+        }
+    }
+
+    @Test
+    public void insertQuotes_journaled_recoversBatchedState() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        OrderBook original = new OrderBook();
+        original.openJournal(directory, Duration.ofHours(1));
+        QuoteGenerator generator = new QuoteGenerator(LoadProfile.defaults(5, 1_000_000));
+        byte[] line = new byte[generator.getMaxQuoteLength()];
+        for (int batch = 0; batch < 20; batch++) {
+            List<Quote> quotes = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                quotes.add(Quote.fromString(new String(line, 0, generator.writeNextQuote(line, 0), StandardCharsets.UTF_8)));
+            }
+            original.insertQuotes(quotes);
+        }
+        original.insertQuote("t=1|i=BTCUSD|p=1.00|q=1|s=b");
+        original.closeJournal();
+
+        OrderBook recovered = new OrderBook();
+        recovered.openJournal(directory, Duration.ofHours(1));
+        recovered.closeJournal();
+
+        for (String instrument : new String[] {"BTCUSD", "ETHUSD", "SOLUSD"}) {
+            assertEquals(original.allAsksAndBids(instrument), recovered.allAsksAndBids(instrument));
+        }
+    }
+
+    @Test
+    public void depthReport_allInstruments_matchesSingleInstrumentQueries() {
+        OrderBook orderBook = new OrderBook();
+        QuoteGenerator generator = new QuoteGenerator(LoadProfile.defaults(9, 1_000_000));
+        byte[] line = new byte[generator.getMaxQuoteLength()];
+        for (int i = 0; i < 2000; i++) {
+            orderBook.insertQuote(new String(line, 0, generator.writeNextQuote(line, 0), StandardCharsets.UTF_8));
+        }
+        for (int i = 0; i < 300; i++) {
+            orderBook.insertQuote("t=1|i=SYM" + i + "|p=" + (i + 1) + "|q=" + (i + 2) + "|s=b");
+        }
+
+        for (int levels : new int[] {5, 7}) {
+            DepthReport report = orderBook.depthReport(levels);
+            assertEquals(303, report.size());
+            for (String instrument : new String[] {"BTCUSD", "ETHUSD", "SOLUSD", "SYM150"}) {
+                int index = report.indexOf(instrument);
+                assertEquals(orderBook.averagePrice(instrument, levels), report.getAveragePrice(index).toString());
+                assertEquals(orderBook.totalQuantity(instrument, levels), report.getTotalQuantity(index).toString());
+                assertEquals(orderBook.volumeWeightedAveragePrice(instrument, levels),
+                        report.getVolumeWeightedPrice(index).toString());
+            }
+        }
+    }
+
+    @Test
+    public void depthReport_basket_skipsUnknownInstruments() {
+        OrderBook orderBook = new OrderBook();
+        orderBook.insertQuote("t=1|i=BTCUSD|p=32.99|q=100|s=b");
+        orderBook.insertQuote("t=1|i=ETHUSD|p=2.50|q=10|s=s");
+
+        DepthReport report = orderBook.depthReport(List.of("ETHUSD", "UNKNOWN"), 5);
+
+        assertEquals(1, report.size());
+        assertEquals("ETHUSD", report.getInstrument(0));
+        assertEquals("2.50", report.getVolumeWeightedPrice(0).setScale(2).toString());
+    }
+
+    @Test
+    public void volumeWeightedAveragePrice_notionalBeyondLong_computedExactly() {
+        OrderBook orderBook = new OrderBook();
+        orderBook.insertQuote("t=1638848595000|i=BTCUSD|p=99999999.99|q=99999999.99|s=s");
+        orderBook.insertQuote("t=1638848595100|i=BTCUSD|p=99999999.97|q=99999999.99|s=b");
+        String expected = "99999999.98000000";
+
+        assertEquals(expected, orderBook.volumeWeightedAveragePrice("BTCUSD", 1));
+        assertEquals(expected, orderBook.volumeWeightedAveragePrice("BTCUSD", 3));
+        assertEquals(new BigDecimal(expected),
+                orderBook.marketData("BTCUSD").snapshot().volumeWeightedPriceOverNLevels(1));
+        assertEquals(new BigDecimal(expected), orderBook.depthReport(1).getUniverseVolumeWeightedPrice());
+        assertEquals(new BigDecimal(expected),
+                orderBook.windowStats("BTCUSD", StatsWindow.ONE_MINUTE, 1638848595100L).getVolumeWeightedPrice());
+        ByteBuffer out = ByteBuffer.allocate(64);
+        orderBook.volumeWeightedAveragePrice("BTCUSD", 1, new QueryEncoder(QueryFormat.TEXT), out);
+        assertEquals(expected, new String(out.array(), 0, out.position(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void windowStats_batchedQuotes_matchSingleInserts() {
+        String[] quotes = {
+                "t=1638848595000|i=BTCUSD|p=32.99|q=100|s=s",
+                "t=1638848595100|i=BTCUSD|p=32.99|q=50|s=s",
+                "t=1638848595200|i=BTCUSD|p=32.99|q=0|s=s",
+                "t=1638848595300|i=BTCUSD|p=32.99|q=30|s=s",
+                "t=1638848595400|i=BTCUSD|p=32.95|q=20|s=b",
+                "t=1638848595500|i=BTCUSD|p=32.95|q=0|s=b",
+                "t=1638848595600|i=BTCUSD|p=32.95|q=0|s=b",
+                "t=1638848595700|i=BTCUSD|p=32.90|q=10|s=b"};
+        OrderBook single = new OrderBook();
+        for (String quote : quotes) {
+            single.insertQuote(quote);
+        }
+        byte[] packet = (String.join("\n", quotes) + "\n").getBytes(StandardCharsets.UTF_8);
+        OrderBook batched = new OrderBook();
+        batched.insertQuotes(packet, 0, packet.length);
+
+        for (StatsWindow window : StatsWindow.values()) {
+            WindowStats expected = single.windowStats("BTCUSD", window, 1638848595900L);
+            WindowStats actual = batched.windowStats("BTCUSD", window, 1638848595900L);
+            assertEquals(5, actual.getUpdates());
+            assertEquals(3, actual.getCancels());
+            assertEquals(expected.getUpdates(), actual.getUpdates());
+            assertEquals(expected.getCancels(), actual.getCancels());
+            assertEquals(expected.getVolumeWeightedPrice(), actual.getVolumeWeightedPrice());
+        }
+    }
+
+    @Test
+    public void windowStats_quotesWithTimestamps_tracksActivityAndSpread() {
+        OrderBook orderBook = new OrderBook();
+        orderBook.insertQuote("t=1638848595000|i=BTCUSD|p=32.99|q=100|s=s");
+        orderBook.insertQuote("t=1638848595100|i=BTCUSD|p=32.95|q=50|s=b");
+        orderBook.insertQuote("t=1638848595200|i=BTCUSD|p=32.97|q=50|s=b");
+        orderBook.insertQuote("t=1638848596500|i=BTCUSD|p=32.97|q=0|s=b");
+
+        WindowStats second = orderBook.windowStats("BTCUSD", StatsWindow.ONE_SECOND, 1638848596500L);
+        assertEquals(0, second.getUpdates());
+        assertEquals(1, second.getCancels());
+        assertEquals(new BigDecimal("0.04"), second.getMaxSpread());
+
+        WindowStats minute = orderBook.windowStats("BTCUSD", StatsWindow.ONE_MINUTE, 1638848596500L);
+        assertEquals(3, minute.getUpdates());
+        assertEquals(1, minute.getCancels());
+        assertEquals(3, minute.getSpreadSamples());
+        assertEquals(new BigDecimal("0.02"), minute.getMinSpread());
+        assertEquals(new BigDecimal("0.04"), minute.getMaxSpread());
+        assertEquals(new BigDecimal("0.03333333"), minute.getMeanSpread());
+        assertEquals(new BigDecimal("32.97500000"), minute.getVolumeWeightedPrice());
+        assertEquals(null, orderBook.windowStats("ETHUSD", StatsWindow.ONE_MINUTE));
+    }
+
+    @Test
+    public void l3Book_orders_answerLevelQueries() {
+        OrderBook orderBook = new OrderBook();
+        L3Book book = orderBook.l3Book("BTCUSD");
+        book.addOrder(1, Side.BUY, 3298, 3000, 1);
+        book.addOrder(2, Side.BUY, 3298, 2000, 2);
+        book.addOrder(3, Side.SELL, 3299, 10000, 3);
+        assertEquals("0: 50.00 32.98 | 32.99 100.00\n", orderBook.topLevel("BTCUSD"));
+        book.cancelOrder(1, 4);
+        assertEquals("0: 20.00 32.98 | 32.99 100.00\n", orderBook.topLevel("BTCUSD"));
+    }
+
+    @Test
+    public void enableMatching_crossingQuote_tradesAndRestsRemainder() {
+        OrderBook orderBook = new OrderBook();
+        List<String> trades = new ArrayList<>();
+        orderBook.enableMatching((instrument, taker, maker, side, price, quantity, timestamp) ->
+                trades.add(instrument + " " + side + " " + price + " " + quantity));
+        orderBook.insertQuote("t=1638848595|i=BTCUSD|p=32.99|q=100|s=s");
+        orderBook.insertQuote("t=1638848595|i=BTCUSD|p=33.10|q=100|s=s");
+        orderBook.insertQuote("t=1638848596|i=BTCUSD|p=33.00|q=150|s=b");
+        assertEquals(List.of("BTCUSD BUY 3299 10000"), trades);
+        assertEquals("0: 50.00 33.00 | 33.10 100.00\n", orderBook.topLevel("BTCUSD"));
+        orderBook.insertQuote("t=1638848597|i=BTCUSD|p=33.00|q=0|s=b");
+        assertEquals("0:            | 33.10 100.00\n", orderBook.topLevel("BTCUSD"));
+    }
+
+    @Test
+    public void enableMatching_negativeQuantity_countsQuoteAsRejected() {
+        OrderBook orderBook = new OrderBook();
+        List<String> trades = new ArrayList<>();
+        orderBook.enableMatching((instrument, taker, maker, side, price, quantity, timestamp) ->
+                trades.add(instrument + " " + side + " " + price + " " + quantity));
+        orderBook.insertQuote("t=1638848595|i=BTCUSD|p=32.99|q=100|s=s");
+        orderBook.insertQuote("t=1638848596|i=BTCUSD|p=33.00|q=-50|s=b");
+        assertTrue(trades.isEmpty());
+        assertEquals(1, orderBook.metrics().getRejectedQuotes());
+        assertEquals("0:            | 32.99 100.00\n", orderBook.topLevel("BTCUSD"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.orderbook.domain;
+
+import com.orderbook.LoadProfile;
+import com.orderbook.QuoteGenerator;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class QueryEncoderTest {
+    private static final String BTCUSD = "BTCUSD";
+
+    @Test
+    public void encode_textFormat_matchesStringQueries() {
+        OrderBook orderBook = new OrderBook();
+        QuoteGenerator generator = new QuoteGenerator(LoadProfile.defaults(7, 1_000_000));
+        QueryEncoder encoder = new QueryEncoder(QueryFormat.TEXT);
+        ByteBuffer out = ByteBuffer.allocate(1 << 20);
+        byte[] line = new byte[generator.getMaxQuoteLength()];
+        Set<String> instruments = new TreeSet<>();
+        Quote quote = new Quote();
+        QuoteParser parser = new QuoteParser(orderBook.getSymbols());
+        for (int i = 0; i < 5_000; i++) {
+            int length = generator.writeNextQuote(line, 0);
+            orderBook.insertQuote(parser.parse(line, 0, length, quote));
+            instruments.add(quote.getInstrument());
+            if (i % 250 != 0) continue;
+            for (String instrument : instruments) {
+                assertEquals(orderBook.topLevel(instrument), text(out, () -> orderBook.topLevel(instrument, encoder, out)));
+                assertEquals(orderBook.allAsksAndBids(instrument), text(out, () -> orderBook.allAsksAndBids(instrument, encoder, out)));
+                for (int levels = 0; levels <= 12; levels += 3) {
+                    int n = levels;
+                    assertEquals(orderBook.averagePrice(instrument, n), text(out, () -> orderBook.averagePrice(instrument, n, encoder, out)));
+                    assertEquals(orderBook.totalQuantity(instrument, n), text(out, () -> orderBook.totalQuantity(instrument, n, encoder, out)));
+                    assertEquals(orderBook.volumeWeightedAveragePrice(instrument, n),
+                            text(out, () -> orderBook.volumeWeightedAveragePrice(instrument, n, encoder, out)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void encode_unknownInstrument_writesWarning() {
+        OrderBook orderBook = new OrderBook();
+        QueryEncoder encoder = new QueryEncoder(QueryFormat.TEXT);
+        ByteBuffer out = ByteBuffer.allocate(256);
+        assertEquals(orderBook.topLevel("non-existent"), text(out, () -> orderBook.topLevel("non-existent", encoder, out)));
+        assertEquals(orderBook.averagePrice("non-existent", 3),
+                text(out, () -> orderBook.averagePrice("non-existent", 3, encoder, out)));
+    }
+
+    @Test
+    public void encode_binaryFormat_writesFixedLayout() {
+        OrderBook orderBook = new OrderBook();
+        orderBook.insertQuote("t=1638848595|i=BTCUSD|p=32.99|q=100|s=s");
+        orderBook.insertQuote("t=1638848595|i=BTCUSD|p=33.5|q=20|s=s");
+        orderBook.insertQuote("t=1638848595|i=BTCUSD|p=32.98|q=50|s=b");
+        QueryEncoder encoder = new QueryEncoder(QueryFormat.BINARY);
+        ByteBuffer out = ByteBuffer.allocate(256);
+
+        orderBook.allAsksAndBids(BTCUSD, encoder, out);
+        out.flip();
+        assertEquals(1, out.getInt());
+        assertEquals(2, out.getInt());
+        assertEquals(3298, out.getLong());
+        assertEquals(5000, out.getLong());
+        assertEquals(3299, out.getLong());
+        assertEquals(10000, out.getLong());
+        assertEquals(3350, out.getLong());
+        assertEquals(2000, out.getLong());
+        assertEquals(0, out.remaining());
+
+        out.clear();
+        orderBook.totalQuantity(BTCUSD, 1, encoder, out);
+        orderBook.averagePrice(BTCUSD, 1, encoder, out);
+        orderBook.volumeWeightedAveragePrice(BTCUSD, 1, encoder, out);
+        orderBook.topLevel("non-existent", encoder, out);
+        out.flip();
+        assertEquals(15000, out.getLong());
+        assertEquals(new BigDecimal(orderBook.averagePrice(BTCUSD, 1)).movePointRight(8).longValueExact(), out.getLong());
+        assertEquals(new BigDecimal(orderBook.volumeWeightedAveragePrice(BTCUSD, 1)).movePointRight(8).longValueExact(),
+                out.getLong());
+        assertEquals(-1, out.getInt());
+        assertEquals(0, out.remaining());
+    }
+
+    private static String text(ByteBuffer out, Runnable query) {
+        out.clear();
+        query.run();
+        out.flip();
+        byte[] bytes = new byte[out.remaining()];
+        out.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
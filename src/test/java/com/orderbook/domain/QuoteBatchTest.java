@@ -0,0 +1,42 @@
+package com.orderbook.domain;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class QuoteBatchTest {
+
+    @Test
+    public void add_sameLevelRepeatedly_collapsesToOneLevel() {
+        QuoteBatch batch = new QuoteBatch();
+        batch.add(Quote.fromString("t=1|i=BTCUSD|p=32.99|q=100|s=b"));
+        batch.add(Quote.fromString("t=2|i=BTCUSD|p=32.99|q=50|s=b"));
+        batch.add(Quote.fromString("t=3|i=BTCUSD|p=32.99|q=0|s=b"));
+        batch.add(Quote.fromString("t=4|i=BTCUSD|p=32.99|q=25|s=b"));
+        batch.add(Quote.fromString("t=5|i=BTCUSD|p=32.99|q=10|s=s"));
+        batch.add(Quote.fromString("t=6|i=ETHUSD|p=32.99|q=10|s=b"));
+
+        assertEquals(6, batch.size());
+        assertEquals(3, batch.getLevelCount());
+        LevelBatch btc = batch.getInstrumentBatches().get(0);
+        assertEquals("BTCUSD", btc.getInstrument());
+        assertEquals(true, btc.isDelete(0));
+        assertEquals(2500, btc.quantity(0));
+        assertEquals(4, btc.timestamp(0));
+        assertEquals(3, btc.getOperationCount());
+    }
+
+    @Test
+    public void clear_reusedBatch_startsEmpty() {
+        QuoteBatch batch = new QuoteBatch();
+        for (int i = 0; i < 100; i++) {
+            batch.add(Quote.fromString("t=1|i=BTCUSD|p=" + i + "|q=1|s=b"));
+        }
+        batch.clear();
+        batch.add(Quote.fromString("t=1|i=BTCUSD|p=5|q=1|s=s"));
+
+        assertEquals(1, batch.size());
+        assertEquals(1, batch.getLevelCount());
+        assertEquals(1, batch.getInstrumentBatches().size());
+    }
+}
@@ -0,0 +1,110 @@
+package com.orderbook.domain;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static com.orderbook.domain.Side.BUY;
+import static com.orderbook.domain.Side.SELL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+public class QuoteParserTest {
+
+    @Test
+    public void parse_validLine_fillsQuote() {
+        byte[] line = bytes("t=1638848595|i=BTCUSD|p=32.99|q=100|s=b");
+        Quote quote = new QuoteParser().parse(line, 0, line.length, new Quote());
+        assertEquals("BTCUSD", quote.getInstrument());
+        assertEquals(1638848595L, quote.getTimestamp());
+        assertEquals(3299, quote.getScaledPrice());
+        assertEquals(10000, quote.getScaledQuantity());
+        assertEquals(BUY, quote.getSide());
+    }
+
+    @Test
+    public void parse_nonNumericTimestamp_throws() {
+        byte[] line = bytes("t=16388x8595|i=BTCUSD|p=32.99|q=100|s=b");
+        assertThrows(IllegalArgumentException.class, () -> new QuoteParser().parse(line, 0, line.length, new Quote()));
+    }
+
+    @Test
+    public void parse_lineInsideBuffer_parsesOnlyRange() {
+        byte[] buffer = bytes("garbage\nt=1638848595|i=ETHUSD|p=1.5|q=2|s=s\r\nmore");
+        Quote quote = new QuoteParser().parse(buffer, 8, 45, new Quote());
+        assertEquals("ETHUSD", quote.getInstrument());
+        assertEquals(150, quote.getScaledPrice());
+        assertEquals(200, quote.getScaledQuantity());
+        assertEquals(SELL, quote.getSide());
+    }
+
+    @Test
+    public void parse_directBuffer_fillsQuote() {
+        byte[] line = bytes("t=1638848595|i=SOLUSD|p=65.8|q=200.5|s=s\n");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(line.length);
+        buffer.put(line);
+        Quote quote = new QuoteParser().parse(buffer, 0, line.length, new Quote());
+        assertEquals("SOLUSD", quote.getInstrument());
+        assertEquals(6580, quote.getScaledPrice());
+        assertEquals(20050, quote.getScaledQuantity());
+    }
+
+    @Test
+    public void parse_reusedQuote_overwritesFieldsAndReusesInstrument() {
+        SymbolTable symbols = new SymbolTable();
+        QuoteParser parser = new QuoteParser(symbols);
+        Quote quote = new Quote();
+        byte[] first = bytes("t=1|i=BTCUSD|p=1|q=1|s=b");
+        byte[] second = bytes("t=2|i=BTCUSD|p=2|q=3|s=s");
+        String instrument = parser.parse(first, 0, first.length, quote).getInstrument();
+        parser.parse(second, 0, second.length, quote);
+        assertSame(instrument, quote.getInstrument());
+        assertEquals(symbols.find("BTCUSD"), quote.getInstrumentId());
+        assertEquals(200, quote.getScaledPrice());
+        assertEquals(300, quote.getScaledQuantity());
+        assertEquals(SELL, quote.getSide());
+    }
+
+    @Test
+    public void parse_manyInstruments_resolvesEachInstrument() {
+        QuoteParser parser = new QuoteParser();
+        Quote quote = new Quote();
+        for (int i = 0; i < 100; i++) {
+            byte[] line = bytes("t=1|i=INST" + i + "|p=1|q=1|s=b");
+            assertEquals("INST" + i, parser.parse(line, 0, line.length, quote).getInstrument());
+        }
+    }
+
+    @Test
+    public void parse_wrongFieldCount_throwsException() {
+        byte[] tooFew = bytes("t=1638848595|i=BTCUSD|p=32.99|q=100");
+        byte[] tooMany = bytes("t=1638848595|i=BTCUSD|p=32.99|q=100|s=b|x=1");
+        QuoteParser parser = new QuoteParser();
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(tooFew, 0, tooFew.length, new Quote()));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(tooMany, 0, tooMany.length, new Quote()));
+    }
+
+    @Test
+    public void parse_invalidSide_throwsException() {
+        byte[] line = bytes("t=1638848595|i=BTCUSD|p=32.99|q=100|s=x");
+        assertThrows(IllegalArgumentException.class, () -> new QuoteParser().parse(line, 0, line.length, new Quote()));
+    }
+
+    @Test
+    public void parse_emptySide_throwsException() {
+        byte[] line = bytes("t=1638848595|i=BTCUSD|p=32.99|q=100|s=");
+        assertThrows(IllegalArgumentException.class, () -> new QuoteParser().parse(line, 0, line.length, new Quote()));
+    }
+
+    @Test
+    public void parse_invalidPrice_throwsException() {
+        byte[] line = bytes("t=1638848595|i=BTCUSD|p=invalid|q=100|s=b");
+        assertThrows(IllegalArgumentException.class, () -> new QuoteParser().parse(line, 0, line.length, new Quote()));
+    }
+
+    private static byte[] bytes(String str) {
+        return str.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,57 @@
+package com.orderbook.domain;
+
+import com.orderbook.LoadProfile;
+import com.orderbook.QuoteGenerator;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReplayComparisonTest {
+
+    @Test
+    public void run_generatedCapture_booksIdentical() throws IOException {
+        QuoteGenerator generator = new QuoteGenerator(LoadProfile.defaults(17, 1_000_000));
+        Path file = Files.createTempFile("replay-check", ".txt");
+        file.toFile().deleteOnExit();
+        byte[] line = new byte[generator.getMaxQuoteLength() + 1];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int i = 0; i < 50_000; i++) {
+                int length = generator.writeNextQuote(line, 0);
+                line[length] = '\n';
+                out.write(line, 0, length + 1);
+            }
+        }
+
+        ReplayComparison comparison = ReplayComparison.run(file, 4);
+
+        assertTrue(comparison.toString(), comparison.isIdentical());
+        assertEquals(50_000, comparison.getParallel().getLines());
+        assertEquals(LoadProfile.defaults(17, 1).getInstruments().length, comparison.getInstruments());
+        assertTrue(comparison.getSpeedup() > 0);
+    }
+
+    @Test
+    public void compare_diverging_reportsInstrument() {
+        OrderBook sequential = new OrderBook(1);
+        OrderBook parallel = new OrderBook(1);
+        sequential.insertQuote("t=1|i=BTCUSD|p=32.99|q=100|s=s");
+        parallel.insertQuote("t=1|i=BTCUSD|p=32.99|q=100|s=s");
+        sequential.insertQuote("t=2|i=ETHUSD|p=10.00|q=5|s=b");
+        parallel.insertQuote("t=2|i=ETHUSD|p=10.00|q=6|s=b");
+        parallel.insertQuote("t=3|i=SOLUSD|p=1.00|q=1|s=b");
+        ReplayResult result = new ReplayResult(3, 0, 1);
+
+        ReplayComparison comparison = ReplayComparison.compare(2, sequential, result, parallel, result);
+
+        assertFalse(comparison.isIdentical());
+        assertEquals(List.of("ETHUSD", "SOLUSD"), comparison.getMismatches());
+    }
+}
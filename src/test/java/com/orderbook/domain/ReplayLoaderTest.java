@@ -0,0 +1,106 @@
+package com.orderbook.domain;
+
+import com.orderbook.QuoteGenerator;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+
+public class ReplayLoaderTest {
+
+    @Test
+    public void replay_smallChunks_matchesSequentialLoad() throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            lines.append(QuoteGenerator.generateRandomQuote()).append('\n');
+            if (i % 100 == 0) lines.append("t=1|i=BTCUSD|p=invalid|q=1|s=b\n");
+        }
+        Path file = writeTempFile(lines.toString());
+
+        OrderBook sequential = new OrderBook();
+        sequential.readQuotes(new ByteArrayInputStream(lines.toString().getBytes(StandardCharsets.UTF_8)));
+        OrderBook parallel = new OrderBook();
+        ReplayResult result = new ReplayLoader(parallel, 4, 256).replay(file);
+
+        assertEquals(2020, result.getLines());
+        assertEquals(20, result.getMalformedLines());
+        for (String instrument : new String[] {"BTCUSD", "ETHUSD", "SOLUSD"}) {
+            assertEquals(sequential.allAsksAndBids(instrument), parallel.allAsksAndBids(instrument));
+        }
+    }
+
+    @Test
+    public void replay_windowSmallerThanWorkers_matchesSequentialLoad() throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            lines.append(QuoteGenerator.generateRandomQuote()).append('\n');
+        }
+        Path file = writeTempFile(lines.toString());
+
+        OrderBook sequential = new OrderBook();
+        sequential.readQuotes(new ByteArrayInputStream(lines.toString().getBytes(StandardCharsets.UTF_8)));
+        OrderBook windowed = new OrderBook();
+        ReplayResult result = new ReplayLoader(windowed, 4, 256, 600).replay(file);
+
+        assertEquals(2000, result.getLines());
+        for (String instrument : new String[] {"BTCUSD", "ETHUSD", "SOLUSD"}) {
+            assertEquals(sequential.allAsksAndBids(instrument), windowed.allAsksAndBids(instrument));
+        }
+    }
+
+    @Test
+    public void replay_deleteAfterAddInLaterChunk_keepsInstrumentOrder() throws IOException {
+        Path file = writeTempFile("""
+                t=1|i=BTCUSD|p=32.99|q=100|s=s
+                t=2|i=ETHUSD|p=10.00|q=5|s=b
+                t=3|i=BTCUSD|p=32.99|q=0|s=s
+                t=4|i=BTCUSD|p=33.50|q=7|s=s
+                """);
+        OrderBook orderBook = new OrderBook();
+        ReplayResult result = new ReplayLoader(orderBook, 2, 1).replay(file);
+
+        assertEquals(4, result.getLines());
+        assertEquals(0, result.getMalformedLines());
+        assertEquals("0:            | 33.50 7.00\n", orderBook.allAsksAndBids("BTCUSD"));
+        assertEquals("0: 5.00 10.00 | \n", orderBook.allAsksAndBids("ETHUSD"));
+    }
+
+    @Test
+    public void replay_noTrailingNewline_readsLastLine() throws IOException {
+        Path file = writeTempFile("t=1|i=BTCUSD|p=32.99|q=100|s=s\r\nt=2|i=BTCUSD|p=31.5|q=1|s=b");
+        OrderBook orderBook = new OrderBook();
+        ReplayResult result = new ReplayLoader(orderBook, 3, 8).replay(file);
+
+        assertEquals(2, result.getLines());
+        assertEquals("0: 1.00 31.50 | 32.99 100.00\n", orderBook.allAsksAndBids("BTCUSD"));
+    }
+
+    @Test
+    public void replay_priceAboveArrayLadderRange_countsQuoteAsRejected() throws IOException {
+        Path file = writeTempFile("""
+                t=1|i=BTCUSD|p=32.99|q=100|s=s
+                t=2|i=BTCUSD|p=1000.01|q=5|s=s
+                t=3|i=BTCUSD|p=31.5|q=1|s=b
+                """);
+        OrderBook orderBook = new OrderBook();
+        orderBook.setLadderType("BTCUSD", LadderType.ARRAY);
+        ReplayResult result = new ReplayLoader(orderBook, 2, 8).replay(file);
+
+        assertEquals(3, result.getLines());
+        assertEquals(0, result.getMalformedLines());
+        assertEquals(1, result.getRejectedQuotes());
+        assertEquals("0: 1.00 31.50 | 32.99 100.00\n", orderBook.allAsksAndBids("BTCUSD"));
+    }
+
+    private static Path writeTempFile(String content) throws IOException {
+        Path file = Files.createTempFile("replay", ".txt");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, content);
+        return file;
+    }
+}
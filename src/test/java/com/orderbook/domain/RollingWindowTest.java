@@ -0,0 +1,124 @@
+package com.orderbook.domain;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+
+public class RollingWindowTest {
+    private static final long START = 1_638_848_595_000L;
+
+    @Test
+    public void stats_updatesWithinWindow_aggregatesAll() {
+        RollingWindow window = new RollingWindow(StatsWindow.ONE_SECOND);
+        window.recordUpdate(START, 1000, 100);
+        window.recordUpdate(START + 500, 2000, 300);
+        window.recordCancels(START + 900, 1);
+        WindowStats stats = window.stats("BTCUSD", START + 900);
+        assertEquals(2, stats.getUpdates());
+        assertEquals(1, stats.getCancels());
+        assertEquals(2.0, stats.getUpdateRate(), 1e-9);
+        assertEquals(1.0, stats.getCancelRate(), 1e-9);
+        assertEquals(new BigDecimal("17.50000000"), stats.getVolumeWeightedPrice());
+        assertEquals(START + 1000, stats.getEndTimestamp());
+    }
+
+    @Test
+    public void stats_windowAdvances_evictsExpiredBuckets() {
+        RollingWindow window = new RollingWindow(StatsWindow.ONE_SECOND);
+        window.recordUpdate(START, 1000, 100);
+        window.recordUpdate(START + 950, 3000, 100);
+        window.recordUpdate(START + 1050, 5000, 100);
+        WindowStats stats = window.stats("BTCUSD", START + 1050);
+        assertEquals(2, stats.getUpdates());
+        assertEquals(new BigDecimal("40.00000000"), stats.getVolumeWeightedPrice());
+    }
+
+    @Test
+    public void stats_longGap_clearsWholeRing() {
+        RollingWindow window = new RollingWindow(StatsWindow.ONE_MINUTE);
+        window.recordUpdate(START, 1000, 100);
+        window.recordSpread(START, 5);
+        window.recordUpdate(START + 3_600_000, 2000, 100);
+        WindowStats stats = window.stats("BTCUSD", START + 3_600_000);
+        assertEquals(1, stats.getUpdates());
+        assertEquals(0, stats.getSpreadSamples());
+        assertEquals(BigDecimal.ZERO, stats.getMinSpread());
+    }
+
+    @Test
+    public void record_quoteOlderThanWindow_ignored() {
+        RollingWindow window = new RollingWindow(StatsWindow.ONE_SECOND);
+        window.recordUpdate(START + 5_000, 1000, 100);
+        window.recordUpdate(START, 2000, 100);
+        window.recordUpdate(START + 4_500, 3000, 100);
+        assertEquals(2, window.stats("BTCUSD", START + 5_000).getUpdates());
+    }
+
+    @Test
+    public void stats_spreads_tracksMinMaxAndMean() {
+        RollingWindow window = new RollingWindow(StatsWindow.FIVE_MINUTES);
+        window.recordSpread(START, 4);
+        window.recordSpread(START + 10_000, 1);
+        window.recordSpread(START + 200_000, 10);
+        WindowStats stats = window.stats("BTCUSD", START + 200_000);
+        assertEquals(3, stats.getSpreadSamples());
+        assertEquals(new BigDecimal("0.01"), stats.getMinSpread());
+        assertEquals(new BigDecimal("0.10"), stats.getMaxSpread());
+        assertEquals(new BigDecimal("0.05000000"), stats.getMeanSpread());
+
+        window.recordSpread(START + 305_000, 2);
+        stats = window.stats("BTCUSD", START + 305_000);
+        assertEquals(3, stats.getSpreadSamples());
+        assertEquals(new BigDecimal("0.01"), stats.getMinSpread());
+
+        window.recordSpread(START + 315_000, 2);
+        stats = window.stats("BTCUSD", START + 315_000);
+        assertEquals(new BigDecimal("0.02"), stats.getMinSpread());
+        assertEquals(new BigDecimal("0.10"), stats.getMaxSpread());
+    }
+
+    @Test
+    public void stats_noActivity_returnsZeros() {
+        WindowStats stats = new RollingWindow(StatsWindow.ONE_MINUTE).stats("BTCUSD", START);
+        assertEquals(0, stats.getUpdates());
+        assertEquals(BigDecimal.ZERO, stats.getVolumeWeightedPrice());
+        assertEquals(BigDecimal.ZERO, stats.getMeanSpread());
+    }
+
+    @Test
+    public void stats_queriedAfterQuietPeriod_leavesOutExpiredBuckets() {
+        RollingWindow window = new RollingWindow(StatsWindow.ONE_SECOND);
+        window.recordUpdate(START, 1000, 100);
+        window.recordUpdate(START + 800, 2000, 100);
+        window.recordSpread(START + 800, 5);
+
+        WindowStats stats = window.stats("BTCUSD", START + 1_500);
+        assertEquals(1, stats.getUpdates());
+        assertEquals(START + 1_600, stats.getEndTimestamp());
+        assertEquals(new BigDecimal("0.05"), stats.getMaxSpread());
+
+        stats = window.stats("BTCUSD", START + 60_000);
+        assertEquals(0, stats.getUpdates());
+        assertEquals(0, stats.getSpreadSamples());
+        assertEquals(START + 60_100, stats.getEndTimestamp());
+        assertEquals(2, window.stats("BTCUSD", START + 800).getUpdates());
+    }
+
+    @Test
+    public void stats_tradesAndAmends_countedApartFromCancels() {
+        RollingWindow window = new RollingWindow(StatsWindow.ONE_MINUTE);
+        window.recordTrades(START, 1000, 300, 2);
+        window.recordTrades(START + 100, 2000, 100, 1);
+        window.recordAmend(START + 200);
+        window.recordCancels(START + 300, 4);
+        WindowStats stats = window.stats("BTCUSD", START + 300);
+        assertEquals(3, stats.getTrades());
+        assertEquals(1, stats.getAmends());
+        assertEquals(4, stats.getCancels());
+        assertEquals(0, stats.getUpdates());
+        assertEquals(new BigDecimal("4.00"), stats.getTradedQuantity());
+        assertEquals(new BigDecimal("12.50000000"), stats.getTradedVolumeWeightedPrice());
+    }
+}
@@ -0,0 +1,71 @@
+package com.orderbook.domain;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+
+public class ShardedWriterTest {
+
+    @Test
+    public void flush_applierThrows_countsFailureAndKeepsApplying() throws InterruptedException {
+        List<Long> applied = Collections.synchronizedList(new ArrayList<>());
+        ShardedWriter writer = new ShardedWriter(new InstrumentRegistry(1), quote -> {
+            if (quote.getScaledQuantity() == 0) throw new IllegalArgumentException("Bad quote");
+            applied.add(quote.getScaledQuantity());
+        });
+
+        writer.submit(Quote.fromString("t=1|i=BTCUSD|p=32.99|q=1|s=s"));
+        writer.submit(Quote.fromString("t=2|i=BTCUSD|p=32.99|q=0|s=s"));
+        writer.submit(Quote.fromString("t=3|i=BTCUSD|p=32.99|q=2|s=s"));
+        writer.flush();
+
+        assertEquals(List.of(100L, 200L), applied);
+        assertEquals(1, writer.getFailedQuotes());
+        writer.close();
+    }
+
+    @Test
+    public void flush_writerThreadDied_throwsException() throws InterruptedException {
+        ShardedWriter writer = new ShardedWriter(new InstrumentRegistry(1), quote -> {
+            throw new AssertionError("Writer failure");
+        });
+
+        writer.submit(Quote.fromString("t=1|i=BTCUSD|p=32.99|q=1|s=s"));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, writer::flush);
+        assertEquals("Writer failure", ex.getCause().getMessage());
+        assertThrows(IllegalStateException.class, () -> writer.submit(Quote.fromString("t=2|i=BTCUSD|p=1|q=1|s=s")));
+    }
+
+    @Test
+    public void trySubmit_queueFull_returnsFalseWithoutWaiting() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> applied = Collections.synchronizedList(new ArrayList<>());
+        ShardedWriter writer = new ShardedWriter(new InstrumentRegistry(1), quote -> {
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            applied.add(quote.getScaledQuantity());
+        });
+
+        int accepted = 0;
+        while (writer.trySubmit(Quote.fromString("t=1|i=BTCUSD|p=32.99|q=1|s=s"))) {
+            accepted++;
+        }
+        assertFalse(writer.trySubmit(Quote.fromString("t=2|i=BTCUSD|p=32.99|q=1|s=s")));
+        release.countDown();
+        writer.flush();
+
+        assertEquals(accepted, applied.size());
+        writer.close();
+    }
+}
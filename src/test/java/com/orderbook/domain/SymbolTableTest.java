@@ -0,0 +1,67 @@
+package com.orderbook.domain;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class SymbolTableTest {
+
+    @Test
+    public void id_sameBytesInDifferentBuffers_returnsSameId() {
+        SymbolTable symbols = new SymbolTable();
+        ByteBuffer line = ByteBuffer.wrap("t=1|i=BTCUSD|p=1".getBytes(StandardCharsets.UTF_8));
+        int id = symbols.id(line, 6, 12);
+        assertEquals(id, symbols.id("BTCUSD"));
+        assertEquals(id, symbols.find("BTCUSD"));
+        assertEquals("BTCUSD", symbols.name(id));
+    }
+
+    @Test
+    public void find_unknownSymbol_returnsMinusOne() {
+        SymbolTable symbols = new SymbolTable();
+        symbols.id("BTCUSD");
+        assertEquals(-1, symbols.find("ETHUSD"));
+        assertEquals(1, symbols.size());
+    }
+
+    @Test
+    public void find_bytesInBuffer_returnsIdWithoutRegistering() {
+        SymbolTable symbols = new SymbolTable();
+        int id = symbols.id("BTCUSD");
+        ByteBuffer query = ByteBuffer.wrap("TOP BTCUSD ETHUSD".getBytes(StandardCharsets.UTF_8));
+        assertEquals(id, symbols.find(query, 4, 10));
+        assertEquals(-1, symbols.find(query, 11, 17));
+        assertEquals(1, symbols.size());
+    }
+
+    @Test
+    public void id_manySymbolsFromManyThreads_assignsDenseUniqueIds() throws InterruptedException {
+        SymbolTable symbols = new SymbolTable();
+        ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    String name = "SYM" + i;
+                    int id = symbols.id(name);
+                    Integer previous = ids.putIfAbsent(name, id);
+                    if (previous != null) assertEquals((int) previous, id);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        assertEquals(5000, symbols.size());
+        for (int i = 0; i < 5000; i++) {
+            assertEquals("SYM" + i, symbols.name(ids.get("SYM" + i)));
+        }
+    }
+}
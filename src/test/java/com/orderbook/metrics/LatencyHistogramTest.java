@@ -0,0 +1,50 @@
+package com.orderbook.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketIndex_increasingValues_neverDecreases() {
+        int previous = -1;
+        for (long value = 0; value < 1_000_000; value += 7) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(index >= previous);
+            assertTrue(LatencyHistogram.highestValueInBucket(index) >= value);
+            previous = index;
+        }
+    }
+
+    @Test
+    public void highestValueInBucket_withinThreePercentOfValue() {
+        for (long value = 64; value < 100_000_000; value = value * 3 + 1) {
+            long highest = LatencyHistogram.highestValueInBucket(LatencyHistogram.bucketIndex(value));
+            assertTrue(highest - value <= value * 0.032);
+        }
+    }
+
+    @Test
+    public void snapshot_uniformValues_reportsPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10_000; i++) {
+            histogram.record(i);
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(10_000, snapshot.getCount());
+        assertEquals(10_000, snapshot.getMax());
+        assertEquals(5000.5, snapshot.getMean(), 0.001);
+        assertEquals(5000, snapshot.getValueAtPercentile(50), 5000 * 0.032);
+        assertEquals(9900, snapshot.getValueAtPercentile(99), 9900 * 0.032);
+        assertEquals(10_000, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void snapshot_noValues_reportsZero() {
+        HistogramSnapshot snapshot = new LatencyHistogram().snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtPercentile(99.9));
+    }
+}
@@ -0,0 +1,81 @@
+package com.orderbook.pipeline;
+
+import com.orderbook.QuoteGenerator;
+import com.orderbook.domain.LadderType;
+import com.orderbook.domain.OrderBook;
+import com.orderbook.domain.ReplayResult;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class IngestionPipelineTest {
+
+    @Test
+    public void run_mixedLines_matchesSequentialLoad() throws IOException {
+        QuoteGenerator generator = new QuoteGenerator(42);
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            lines.append(generator.nextQuote()).append('\n');
+            if (i % 100 == 0) lines.append("t=1|i=BTCUSD|p=invalid|q=1|s=b\n");
+        }
+        byte[] bytes = lines.toString().getBytes(StandardCharsets.UTF_8);
+
+        OrderBook sequential = new OrderBook();
+        sequential.readQuotes(new ByteArrayInputStream(bytes));
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+            OrderBook pipelined = new OrderBook();
+            ReplayResult result = new IngestionPipeline(pipelined, 16, 4, waitStrategy)
+                    .run(new ByteArrayInputStream(bytes));
+
+            assertEquals(5050, result.getLines());
+            assertEquals(50, result.getMalformedLines());
+            for (String instrument : new String[] {"BTCUSD", "ETHUSD", "SOLUSD"}) {
+                assertEquals(sequential.allAsksAndBids(instrument), pipelined.allAsksAndBids(instrument));
+            }
+        }
+    }
+
+    @Test
+    public void run_lastLineWithoutNewline_isApplied() throws IOException {
+        OrderBook orderBook = new OrderBook();
+        String lines = "t=1|i=BTCUSD|p=32.99|q=100|s=s\nt=2|i=BTCUSD|p=32.98|q=50|s=b";
+
+        ReplayResult result = new IngestionPipeline(orderBook, WaitStrategy.PARK)
+                .run(new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, result.getLines());
+        assertEquals(0, result.getMalformedLines());
+        assertEquals("0: 50.00 32.98 | 32.99 100.00\n", orderBook.topLevel("BTCUSD"));
+    }
+
+    @Test
+    public void run_malformedLines_reportedAsParseErrors() throws IOException {
+        OrderBook orderBook = new OrderBook();
+        orderBook.enableMetrics();
+        String lines = "t=1|i=BTCUSD|p=32.99|q=100|s=s\nt=2|i=BTCUSD|p=invalid|q=50|s=b\nt=3|i=BTCUSD|q=5|s=b\n";
+
+        ReplayResult result = new IngestionPipeline(orderBook, WaitStrategy.YIELD)
+                .run(new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, result.getMalformedLines());
+        assertEquals(2, orderBook.metrics().getParseErrors());
+    }
+
+    @Test
+    public void run_priceOutsideArrayLadder_countedAsRejectedNotMalformed() throws IOException {
+        OrderBook orderBook = new OrderBook();
+        orderBook.setLadderType("BTCUSD", LadderType.ARRAY);
+        String lines = "t=1|i=BTCUSD|p=32.99|q=100|s=s\nt=2|i=BTCUSD|p=1000.01|q=5|s=s\n";
+
+        ReplayResult result = new IngestionPipeline(orderBook, WaitStrategy.PARK)
+                .run(new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(0, result.getMalformedLines());
+        assertEquals(1, result.getRejectedQuotes());
+        assertEquals("0:            | 32.99 100.00\n", orderBook.topLevel("BTCUSD"));
+    }
+}
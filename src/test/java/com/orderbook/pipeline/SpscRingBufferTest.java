@@ -0,0 +1,60 @@
+package com.orderbook.pipeline;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+public class SpscRingBufferTest {
+
+    @Test
+    public void ring_producerFasterThanConsumer_deliversAllInOrder() throws InterruptedException {
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+            SpscRingBuffer<AtomicLong> ring = new SpscRingBuffer<>(8, AtomicLong::new, waitStrategy);
+            long[] received = new long[1];
+            long[] outOfOrder = new long[1];
+            long[] sum = new long[1];
+            Thread consumer = new Thread(() -> {
+                long next = 0;
+                long available;
+                while ((available = ring.waitFor(next)) >= 0) {
+                    for (long sequence = next; sequence <= available; sequence++) {
+                        if (ring.get(sequence).get() != sequence) outOfOrder[0]++;
+                        sum[0] += sequence;
+                        received[0]++;
+                    }
+                    ring.release(available);
+                    next = available + 1;
+                }
+            });
+            consumer.start();
+            for (long i = 0; i < 2_000; i++) {
+                ring.claim().set(i);
+                ring.publish();
+            }
+            ring.close();
+            consumer.join();
+
+            assertEquals(waitStrategy.name(), 0, outOfOrder[0]);
+            assertEquals(2_000, received[0]);
+            assertEquals(1_999L * 2_000 / 2, sum[0]);
+        }
+    }
+
+    @Test
+    public void waitFor_closedAndDrained_returnsMinusOne() {
+        SpscRingBuffer<AtomicLong> ring = new SpscRingBuffer<>(4, AtomicLong::new, WaitStrategy.BUSY_SPIN);
+        ring.claim();
+        ring.publish();
+        ring.close();
+
+        assertEquals(0, ring.waitFor(0));
+        assertEquals(-1, ring.waitFor(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void ring_capacityNotPowerOfTwo_throws() {
+        new SpscRingBuffer<>(6, AtomicLong::new, WaitStrategy.YIELD);
+    }
+}
@@ -0,0 +1,122 @@
+package com.orderbook.server;
+
+import com.orderbook.domain.OrderBook;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MarketDataServerTest {
+
+    @Test
+    public void server_feedThenQuery_servesAllQueryTypes() throws IOException {
+        try (OrderBook orderBook = new OrderBook(); MarketDataServer server = startServer(orderBook)) {
+            try (Socket feed = connect(server.getFeedPort())) {
+                OutputStream out = feed.getOutputStream();
+                out.write(("t=1|i=BTCUSD|p=32.99|q=100|s=s\n"
+                        + "t=2|i=BTCUSD|p=32.98|q=50|s=b\n"
+                        + "t=3|i=BTCUSD|p=invalid|q=50|s=b\n"
+                        + "t=4|i=BTCUSD|p=33.10|q=20|s=s").getBytes(StandardCharsets.UTF_8));
+            }
+            awaitQuotes(server, orderBook, 3);
+
+            try (Socket query = connect(server.getQueryPort())) {
+                assertEquals(orderBook.topLevel("BTCUSD"), request(query, "TOP BTCUSD"));
+                assertEquals(orderBook.allAsksAndBids("BTCUSD"), request(query, "ALL BTCUSD"));
+                assertEquals(orderBook.averagePrice("BTCUSD", 2), request(query, "AVG BTCUSD 2"));
+                assertEquals(orderBook.totalQuantity("BTCUSD", 2), request(query, "QTY BTCUSD 2"));
+                assertEquals(orderBook.volumeWeightedAveragePrice("BTCUSD", 2), request(query, "vwap BTCUSD 2"));
+                assertEquals(orderBook.topLevel("XRPUSD"), request(query, "TOP XRPUSD"));
+                assertEquals("ERR invalid request", request(query, "AVG BTCUSD"));
+            }
+            assertEquals(1, server.getMalformedLines());
+            assertEquals(0, server.getFeedPauses());
+        }
+    }
+
+    @Test
+    public void server_writerQueueFull_pausesFeedAndAppliesEveryQuote() throws IOException {
+        int quotes = 20_000;
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < quotes; i++) {
+            lines.append("t=").append(i).append("|i=BTCUSD|p=32.99|q=1|s=s\n");
+        }
+        try (OrderBook orderBook = new OrderBook(1, 256); MarketDataServer server = startServer(orderBook)) {
+            try (Socket feed = connect(server.getFeedPort()); Socket query = connect(server.getQueryPort())) {
+                feed.getOutputStream().write(lines.toString().getBytes(StandardCharsets.UTF_8));
+                assertEquals(orderBook.topLevel("ETHUSD"), request(query, "TOP ETHUSD"));
+            }
+            awaitQuotes(server, orderBook, quotes);
+
+            assertTrue(server.getFeedPauses() > 0);
+            assertEquals("20000.00", orderBook.totalQuantity("BTCUSD", 1));
+        }
+    }
+
+    @Test
+    public void server_manyQueryClients_allAnswered() throws IOException {
+        try (OrderBook orderBook = new OrderBook(); MarketDataServer server = startServer(orderBook)) {
+            orderBook.insertQuote("t=1|i=ETHUSD|p=2.50|q=10|s=s");
+            List<Socket> clients = new ArrayList<>();
+            try {
+                for (int i = 0; i < 200; i++) {
+                    Socket client = connect(server.getQueryPort());
+                    clients.add(client);
+                    client.getOutputStream().write("QTY ETHUSD 1\n".getBytes(StandardCharsets.UTF_8));
+                }
+                for (Socket client : clients) {
+                    assertEquals("10.00", readResponse(client));
+                }
+            } finally {
+                for (Socket client : clients) {
+                    client.close();
+                }
+            }
+        }
+    }
+
+    private static MarketDataServer startServer(OrderBook orderBook) throws IOException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        MarketDataServer server = new MarketDataServer(orderBook,
+                new InetSocketAddress(loopback, 0), new InetSocketAddress(loopback, 0));
+        server.start();
+        return server;
+    }
+
+    private static Socket connect(int port) throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        socket.setSoTimeout(5000);
+        return socket;
+    }
+
+    private static void awaitQuotes(MarketDataServer server, OrderBook orderBook, long quotes) {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (server.getQuotes() < quotes && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        orderBook.flush();
+        assertEquals(quotes, server.getQuotes());
+    }
+
+    private static String request(Socket socket, String request) throws IOException {
+        socket.getOutputStream().write((request + "\n").getBytes(StandardCharsets.UTF_8));
+        return readResponse(socket);
+    }
+
+    private static String readResponse(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(socket.getInputStream());
+        byte[] response = new byte[in.readInt()];
+        in.readFully(response);
+        return new String(response, StandardCharsets.UTF_8);
+    }
+}